@@ -0,0 +1,30 @@
+package at.jku.dke.slotmachine.data.excel.benchmark;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of benchmarks.jar, accepts the command line options of JMH (e.g. a regular expression of the
+ * benchmarks, -p flights=100 or -rf json -rff results.json) and always adds the GC profiler, so that the
+ * allocation rate (gc.alloc.rate.norm = bytes per operation) is reported next to throughput and latency.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers() ||
+                commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            // help and lists are handled by the main class of JMH
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        Options options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
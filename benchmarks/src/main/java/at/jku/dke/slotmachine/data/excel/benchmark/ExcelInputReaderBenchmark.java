@@ -0,0 +1,90 @@
+package at.jku.dke.slotmachine.data.excel.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.jku.dke.slotmachine.data.excel.ExcelInputReader;
+import at.jku.dke.slotmachine.data.excel.ExcelOutputWriter;
+import at.jku.dke.slotmachine.data.excel.ExcelWorkbookSession;
+import at.jku.dke.slotmachine.data.excel.Flight;
+import at.jku.dke.slotmachine.data.excel.FlightGenerator;
+import at.jku.dke.slotmachine.data.excel.MarginEntry;
+import at.jku.dke.slotmachine.data.excel.OptimizationSessionEntry;
+import at.jku.dke.slotmachine.data.excel.WeightMapLayout;
+
+/**
+ * Reading of synthetic excel files (ExcelInputReader). Each invocation opens the file again, therefore the
+ * parsing of the file is included. The excel target file for convertToOptimizationSessionEntry is written in
+ * the setup with the given layout. Larger sizes can be given with -p (e.g. -p slots=10000).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ExcelInputReaderBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int flights;
+
+    @Param({"100", "1000"})
+    public int slots;
+
+    @Param({"MATRIX"})
+    public WeightMapLayout layout;
+
+    private SyntheticSession session;
+    private List<Flight> flightList;
+    private String targetFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        session = new SyntheticSession(flights, slots);
+        flightList = FlightGenerator.generateFlights(session.getMargins(), session.getOptimization());
+        targetFile = session.resolve("target.xlsx");
+        try (ExcelWorkbookSession source = new ExcelWorkbookSession(session.getSourceFile())) {
+            ExcelOutputWriter.writeWeightsToFile(flightList, session.getOptimization(), targetFile, source, layout, 1000);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        session.close();
+    }
+
+    @Benchmark
+    public List<MarginEntry> readMarginsFromFile() {
+        return ExcelInputReader.readMarginsFromFile(session.getSourceFile());
+    }
+
+    /**
+     * excel target file with weight maps (as -ctj)
+     */
+    @Benchmark
+    public OptimizationSessionEntry convertToOptimizationSessionEntry() {
+        return ExcelInputReader.convertToOptimizationSessionEntry(targetFile);
+    }
+
+    /**
+     * excel source file and generated weight maps (as -cmtj, without the generation of the weight maps)
+     */
+    @Benchmark
+    public OptimizationSessionEntry convertToOptimizationSessionEntryNoWeightMap() {
+        return ExcelInputReader.convertToOptimizationSessionEntryNoWeightMap(session.getSourceFile(), flightList,
+                SyntheticSession.OPT_ID);
+    }
+}
@@ -0,0 +1,98 @@
+package at.jku.dke.slotmachine.data.excel.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.jku.dke.slotmachine.data.excel.ExcelOutputWriter;
+import at.jku.dke.slotmachine.data.excel.ExcelWorkbookSession;
+import at.jku.dke.slotmachine.data.excel.Flight;
+import at.jku.dke.slotmachine.data.excel.FlightGenerator;
+import at.jku.dke.slotmachine.data.excel.FlightSequenceEntry;
+import at.jku.dke.slotmachine.data.excel.MarginEntry;
+import at.jku.dke.slotmachine.data.excel.WeightMapLayout;
+
+/**
+ * Writing of synthetic excel target files (ExcelOutputWriter). The weight maps are generated in the setup.
+ * rowWindow 0 builds the whole workbook in memory (XSSF), otherwise the rows are streamed (SXSSF, as -rowWindow).
+ * Larger sizes and the layout SHEET_PER_FLIGHT can be given with -p (e.g. -p layout=SHEET_PER_FLIGHT).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ExcelOutputWriterBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int flights;
+
+    @Param({"100", "1000"})
+    public int slots;
+
+    @Param({"MATRIX"})
+    public WeightMapLayout layout;
+
+    @Param({"0", "1000"})
+    public int rowWindow;
+
+    private SyntheticSession session;
+    private ExcelWorkbookSession source;
+    private List<Flight> flightList;
+    private String targetFile;
+    private String sequenceFile;
+    private FlightSequenceEntry sequence;
+
+    @Setup
+    public void setUp() throws IOException {
+        session = new SyntheticSession(flights, slots);
+        source = new ExcelWorkbookSession(session.getSourceFile());
+        // margins of the source file are read once (as by ExcelIO), the benchmark measures only the writing
+        source.getMargins();
+        flightList = FlightGenerator.generateFlights(session.getMargins(), session.getOptimization());
+        targetFile = session.resolve("target.xlsx");
+
+        // target file for the flight sequence, the flights are sequenced in reverse order
+        sequenceFile = session.resolve("sequence.xlsx");
+        ExcelOutputWriter.writeWeightsToFile(flightList, session.getOptimization(), sequenceFile, source, layout, rowWindow);
+        List<MarginEntry> margins = session.getMargins();
+        String[] flightIds = new String[margins.size()];
+        int i = flightIds.length;
+        for (MarginEntry margin: margins) {
+            flightIds[--i] = margin.getFlightId();
+        }
+        sequence = new FlightSequenceEntry(flightIds, SyntheticSession.OPT_ID);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        source.close();
+        session.close();
+    }
+
+    @Benchmark
+    public void writeWeightsToFile() {
+        ExcelOutputWriter.writeWeightsToFile(flightList, session.getOptimization(), targetFile, source, layout, rowWindow);
+    }
+
+    /**
+     * reads the excel target file, writes the flight sequence into sheet 'Flights' and writes the file back (as -wr)
+     */
+    @Benchmark
+    public void writeFlightSequenceOrder() {
+        ExcelOutputWriter.writeFlightSequenceOrder(sequence, sequenceFile, session.getOptimization());
+    }
+}
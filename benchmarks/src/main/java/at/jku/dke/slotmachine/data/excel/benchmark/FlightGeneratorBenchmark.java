@@ -0,0 +1,119 @@
+package at.jku.dke.slotmachine.data.excel.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import at.jku.dke.slotmachine.data.excel.Flight;
+import at.jku.dke.slotmachine.data.excel.FlightGenerator;
+import at.jku.dke.slotmachine.data.excel.MarginEntry;
+import at.jku.dke.slotmachine.data.excel.OptimizationEntry;
+import at.jku.dke.slotmachine.data.excel.WeightFunction;
+
+/**
+ * Generation of the weight maps (FlightGenerator, WeightFunction) from synthetic margins, no files are used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightGeneratorBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int flights;
+
+    @Param({"100", "1000", "10000"})
+    public int slots;
+
+    private OptimizationEntry opt;
+    private List<MarginEntry> margins;
+    private MarginEntry[] marginArray;
+    private long[] slotOffsets;
+    private int[] buffer;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        opt = SyntheticSession.createOptimization(slots);
+        margins = SyntheticSession.createMargins(flights, slots);
+        marginArray = margins.toArray(new MarginEntry[margins.size()]);
+        slotOffsets = FlightGenerator.getSlotOffsets(opt.getSlotTimeline(), opt);
+        buffer = new int[slotOffsets.length];
+    }
+
+    private MarginEntry nextMargin() {
+        MarginEntry margin = marginArray[next];
+        next = next + 1 == marginArray.length ? 0 : next + 1;
+        return margin;
+    }
+
+    /**
+     * weight map of one flight (the flights are used in turn)
+     */
+    @Benchmark
+    public int[] generateWeightMap() {
+        return FlightGenerator.generateWeightMap(nextMargin(), slotOffsets, opt);
+    }
+
+    /**
+     * weight map of one flight written into a reused buffer
+     */
+    @Benchmark
+    public int[] generateWeightMapIntoBuffer() {
+        return FlightGenerator.generateWeightMap(nextMargin(), slotOffsets, opt, buffer);
+    }
+
+    /**
+     * weight function of one flight evaluated into a reused buffer
+     */
+    @Benchmark
+    public int[] evaluateWeightFunction() {
+        return WeightFunction.create(nextMargin(), opt).evaluate(buffer);
+    }
+
+    /**
+     * slot with the highest weight of one flight (without evaluating all slots)
+     */
+    @Benchmark
+    public int weightFunctionArgmax() {
+        return WeightFunction.create(nextMargin(), opt).argmax(0, slots);
+    }
+
+    /**
+     * flights with encoded weight maps, the weights of all slots are read (as by the writers)
+     */
+    @Benchmark
+    public void generateFlights(Blackhole blackhole) {
+        consumeWeights(FlightGenerator.generateFlights(margins, opt), blackhole);
+    }
+
+    /**
+     * flights generated in parallel by all available processors (as -threads without a number), the weights of
+     * all slots are read
+     */
+    @Benchmark
+    public void generateFlightsParallel(Blackhole blackhole) {
+        consumeWeights(FlightGenerator.generateFlights(margins, opt, 0), blackhole);
+    }
+
+    private void consumeWeights(List<Flight> flightList, Blackhole blackhole) {
+        for (Flight f: flightList) {
+            for (int i = 0; i < slots; i++) {
+                blackhole.consume(f.getWeight(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package at.jku.dke.slotmachine.data.excel.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.jku.dke.slotmachine.data.excel.ExcelInputReader;
+import at.jku.dke.slotmachine.data.excel.ExcelWorkbookSession;
+import at.jku.dke.slotmachine.data.excel.FlightGenerator;
+import at.jku.dke.slotmachine.data.excel.JsonOutputWriter;
+import at.jku.dke.slotmachine.data.excel.OptimizationSessionEntry;
+
+/**
+ * Writing of a synthetic OptimizationSessionEntry with margins (as -cmtj ... -margins) to a file. The extension
+ * selects the format and compression (e.g. -p extension=.json,.json.gz,.json.zst,.smile).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonOutputWriterBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int flights;
+
+    @Param({"100", "1000", "10000"})
+    public int slots;
+
+    @Param({".json"})
+    public String extension;
+
+    @Param({"true"})
+    public boolean compact;
+
+    private SyntheticSession session;
+    private OptimizationSessionEntry optSE;
+    private String targetFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        session = new SyntheticSession(flights, slots);
+        try (ExcelWorkbookSession source = new ExcelWorkbookSession(session.getSourceFile())) {
+            optSE = ExcelInputReader.convertToOptimizationSessionEntryNoWeightMap(source,
+                    FlightGenerator.generateFlights(session.getMargins(), session.getOptimization()),
+                    SyntheticSession.OPT_ID, source.getFlightRegistry());
+        }
+        targetFile = session.resolve("session" + extension);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        session.close();
+    }
+
+    @Benchmark
+    public void writeToFile() {
+        JsonOutputWriter.writeToFile(targetFile, optSE, compact);
+    }
+}
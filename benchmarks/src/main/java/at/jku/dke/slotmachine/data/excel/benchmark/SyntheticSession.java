@@ -0,0 +1,169 @@
+package at.jku.dke.slotmachine.data.excel.benchmark;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import at.jku.dke.slotmachine.data.excel.MarginEntry;
+import at.jku.dke.slotmachine.data.excel.OptimizationEntry;
+
+/**
+ * Synthetic excel source file (sheets 'Flights' and 'Optimizations') with the given number of flights and slots
+ * in a temporary directory, which is deleted on close. The margins are deterministic: the scheduled times are
+ * spread evenly over the slots, each margin window is 15 slots wide and the priorities are 1, 2 and 3.
+ */
+public class SyntheticSession implements Closeable {
+    public static final String OPT_ID = "bench-opt";
+    public static final LocalDateTime START_TIME = LocalDateTime.of(2020, 1, 14, 9, 0);
+    /**
+     * interval between two slots in seconds
+     */
+    public static final int INTERVAL = 60;
+
+    private final Path directory;
+    private final String sourceFile;
+    private final OptimizationEntry opt;
+    private final List<MarginEntry> margins;
+
+    /**
+     * Creates the temporary directory and writes the excel source file.
+     * @param flightCount number of flights (rows of sheet 'Flights')
+     * @param slotCount number of slots of the optimization
+     * @throws IOException if the source file cannot be written
+     */
+    public SyntheticSession(int flightCount, int slotCount) throws IOException {
+        this.directory = Files.createTempDirectory("excelio-bench");
+        this.sourceFile = resolve("source.xlsx");
+        this.opt = createOptimization(slotCount);
+        this.margins = createMargins(flightCount, slotCount);
+        writeSourceFile(sourceFile, margins, opt);
+    }
+
+    /**
+     * @param slotCount number of slots
+     * @return optimization with the given number of slots (start and end time are included)
+     */
+    public static OptimizationEntry createOptimization(int slotCount) {
+        LocalDateTime endTime = START_TIME.plusSeconds((long) (slotCount - 1) * INTERVAL);
+        return new OptimizationEntry(OPT_ID, START_TIME, endTime, INTERVAL, "OPTAPLANNER", -10000, 10000, 6000);
+    }
+
+    /**
+     * @param flightCount number of flights
+     * @param slotCount number of slots
+     * @return margins of the flights, spread evenly over the slots
+     */
+    public static List<MarginEntry> createMargins(int flightCount, int slotCount) {
+        List<MarginEntry> margins = new LinkedList<MarginEntry>();
+        for (int i = 0; i < flightCount; i++) {
+            long slot = (long) i * slotCount / flightCount;
+            LocalDateTime scheduledTime = START_TIME.plusSeconds(slot * INTERVAL);
+            margins.add(new MarginEntry(String.format("F%05d", i), scheduledTime,
+                    scheduledTime.minusSeconds(5L * INTERVAL),
+                    scheduledTime.plusSeconds(2L * INTERVAL),
+                    scheduledTime.plusSeconds(10L * INTERVAL),
+                    1 + i % 3));
+        }
+        return margins;
+    }
+
+    /**
+     * Writes an excel source file in the format of ExcelInputReader (header row and one row per entry).
+     * @param fileName file name of the excel source file
+     * @param margins margins of sheet 'Flights'
+     * @param opt optimization of sheet 'Optimizations'
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeSourceFile(String fileName, List<MarginEntry> margins, OptimizationEntry opt) throws IOException {
+        try (Workbook wb = new XSSFWorkbook(); OutputStream out = new FileOutputStream(fileName)) {
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("dd.mm.yyyy hh:mm"));
+
+            Sheet sheetFlights = wb.createSheet("Flights");
+            writeRow(sheetFlights.createRow(0), "FlightId", "ScheduledTime", "TimeNotBefore", "TimeWished",
+                    "TimeNotAfter", "Priority");
+            int rowNum = 1;
+            for (MarginEntry margin: margins) {
+                Row row = sheetFlights.createRow(rowNum++);
+                row.createCell(0).setCellValue(margin.getFlightId());
+                writeDate(row, 1, margin.getScheduledTime(), dateStyle);
+                writeDate(row, 2, margin.getTimeNotBefore(), dateStyle);
+                writeDate(row, 3, margin.getTimeWished(), dateStyle);
+                writeDate(row, 4, margin.getTimeNotAfter(), dateStyle);
+                row.createCell(5).setCellValue(margin.getPriority());
+            }
+
+            Sheet sheetOptimizations = wb.createSheet("Optimizations");
+            writeRow(sheetOptimizations.createRow(0), "OptId", "StartTime", "EndTime", "Interval", "Framework",
+                    "MinValue", "MaxValue", "DropValue");
+            Row row = sheetOptimizations.createRow(1);
+            row.createCell(0).setCellValue(opt.getOptId());
+            writeDate(row, 1, opt.getStartTime(), dateStyle);
+            writeDate(row, 2, opt.getEndTime(), dateStyle);
+            row.createCell(3).setCellValue(opt.getInterval());
+            row.createCell(4).setCellValue(opt.getOptimizationFramework());
+            row.createCell(5).setCellValue(opt.getMinValue());
+            row.createCell(6).setCellValue(opt.getMaxValue());
+            row.createCell(7).setCellValue(opt.getDropValue());
+
+            wb.write(out);
+        }
+    }
+
+    private static void writeRow(Row row, String... values) {
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+        }
+    }
+
+    private static void writeDate(Row row, int column, LocalDateTime value, CellStyle dateStyle) {
+        row.createCell(column).setCellValue(value);
+        row.getCell(column).setCellStyle(dateStyle);
+    }
+
+    /**
+     * @param fileName file name
+     * @return path of the file in the temporary directory
+     */
+    public String resolve(String fileName) {
+        return directory.resolve(fileName).toString();
+    }
+
+    public String getSourceFile() {
+        return sourceFile;
+    }
+
+    public OptimizationEntry getOptimization() {
+        return opt;
+    }
+
+    public List<MarginEntry> getMargins() {
+        return margins;
+    }
+
+    /**
+     * Deletes the temporary directory with all generated files.
+     */
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path: (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Converts all excel source files of a directory (or of a glob pattern, e.g. 'data/*.xlsx') to JSON files for the
+ * optimizer (the same as -cmtj: margins -> weight maps -> OptimizationSessionEntry, one file per optimization) in
+ * one JVM. The source files are converted in parallel by a fixed number of threads, the weight maps of a file are
+ * generated by the thread of the file.
+ */
+public class BatchConverter {
+    private static final Logger logger = LogManager.getLogger();
+
+    public static final String REPORT_FILE_NAME = "batch-report.json";
+
+    /**
+     * @param pattern directory (all .xlsx files of the directory) or glob pattern of the source files
+     * @return excel source files (sorted by name), lock files of Excel ('~$...') are skipped
+     */
+    public static List<String> findSourceFiles(String pattern) {
+        List<String> sources = new LinkedList<String>();
+        Path directory = Paths.get(pattern);
+        try {
+            if (Files.isDirectory(directory)) {
+                try (Stream<Path> paths = Files.list(directory)) {
+                    sources = paths.filter(BatchConverter::isSourceFile).map(Path::toString).sorted()
+                            .collect(Collectors.toCollection(LinkedList::new));
+                }
+            } else {
+                // the directory to search is the part of the pattern before the first glob character
+                int firstGlobChar = pattern.length();
+                for (char c: new char[] {'*', '?', '[', '{'}) {
+                    if (pattern.indexOf(c) != -1) {
+                        firstGlobChar = Math.min(firstGlobChar, pattern.indexOf(c));
+                    }
+                }
+                int lastSeparator = Math.max(pattern.lastIndexOf('/', firstGlobChar), pattern.lastIndexOf(File.separatorChar, firstGlobChar));
+                Path baseDirectory = Paths.get(lastSeparator == -1 ? "." : pattern.substring(0, lastSeparator + 1));
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+                try (Stream<Path> paths = Files.walk(baseDirectory)) {
+                    sources = paths.filter(p -> isSourceFile(p) && (matcher.matches(p) || matcher.matches(p.normalize())))
+                            .map(Path::toString).sorted().collect(Collectors.toCollection(LinkedList::new));
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not list source files of '" + pattern + "'.", e);
+        }
+        return sources;
+    }
+
+    private static boolean isSourceFile(Path path) {
+        String name = path.getFileName().toString();
+        return Files.isRegularFile(path) && name.toLowerCase().endsWith(".xlsx") && !name.startsWith("~$");
+    }
+
+    /**
+     * Converts the source files and writes the report (batch-report.json) to the target directory, or to the
+     * directory of the source files if no target directory is given (the common parent directory, if the source
+     * files are in different directories).
+     * @param sources excel source files
+     * @param targetDirectory directory of the generated files and of the report, or null for the directory of each
+     *          source file
+     * @param includeMargins true to include the margins in the generated JSON files (as -margins)
+     * @param compact true to write JSON without whitespace
+     * @param extension extension of the generated files (e.g. '.json', '.json.gz' or '.smile')
+     * @param threads number of source files converted in parallel (0 or less uses all available processors)
+     * @return report with the result of each source file
+     */
+    public static BatchReport convert(List<String> sources, String targetDirectory, boolean includeMargins,
+            boolean compact, String extension, int threads) {
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        logger.info("Converting " + sources.size() + " excel source files with " + threads + " threads.");
+        long start = System.nanoTime();
+        if (targetDirectory != null) {
+            new File(targetDirectory).mkdirs();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<BatchReport.FileReport>> conversions = new LinkedList<Future<BatchReport.FileReport>>();
+        BatchReport report = new BatchReport();
+        try {
+            for (String source: sources) {
+                conversions.add(executor.submit(() -> convertFile(source, targetDirectory, includeMargins, compact, extension)));
+            }
+            for (Future<BatchReport.FileReport> conversion: conversions) {
+                report.addFile(conversion.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch conversion has been interrupted.", e);
+        } catch (ExecutionException e) {
+            // not possible, convertFile reports all errors
+            throw new IllegalStateException("Could not convert source files.", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        report.setMillis((System.nanoTime() - start) / 1000000);
+
+        for (BatchReport.FileReport file: report.getFiles()) {
+            if (file.isSucceeded()) {
+                logger.info("OK     " + file.getSource() + " (" + file.getMillis() + " ms, " + file.getTargets().size() + " files)");
+            } else {
+                logger.info("FAILED " + file.getSource() + " (" + file.getMillis() + " ms): " + file.getMessage());
+            }
+        }
+        logger.info("Batch conversion finished in " + report.getMillis() + " ms: " + report.getSucceeded() + " succeeded, " +
+                report.getFailed() + " failed.");
+        String reportFile = (targetDirectory != null ? targetDirectory : getCommonDirectory(sources)) + File.separator + 
+                REPORT_FILE_NAME;
+        JsonOutputWriter.writeToFile(reportFile, report);
+        return report;
+    }
+
+    /**
+     * @param sources files
+     * @return deepest directory, which contains all files (directly or in a subdirectory)
+     */
+    private static String getCommonDirectory(List<String> sources) {
+        Path common = null;
+        for (String source: sources) {
+            Path directory = Paths.get(source).toAbsolutePath().normalize().getParent();
+            if (common == null) {
+                common = directory;
+            } else {
+                while (!directory.startsWith(common)) {
+                    common = common.getParent();
+                }
+            }
+        }
+        return common != null ? common.toString() : ".";
+    }
+
+    /**
+     * Converts one source file to one JSON file per optimization (named after the source file and the optId).
+     */
+    private static BatchReport.FileReport convertFile(String source, String targetDirectory, boolean includeMargins,
+            boolean compact, String extension) {
+        long start = System.nanoTime();
+        BatchReport.FileReport report = new BatchReport.FileReport(source);
+        File sourceFile = new File(source);
+        String name = sourceFile.getName().substring(0, sourceFile.getName().length() - ".xlsx".length());
+        String directory = targetDirectory != null ? targetDirectory : sourceFile.getAbsoluteFile().getParent();
+
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(source)) {
+            List<MarginEntry> margins = session.getMargins();
+            List<OptimizationEntry> opts = session.getOptimizations();
+            if (margins.isEmpty()) {
+                report.setMessage("No margins found in sheet 'Flights'.");
+            } else if (opts.isEmpty()) {
+                report.setMessage("No optimizations found in sheet 'Optimizations'.");
+            } else {
+                for (OptimizationEntry o: opts) {
+                    List<Flight> flights = FlightGenerator.generateFlights(margins, o);
+                    OptimizationSessionEntry optSE;
+                    if (includeMargins) {
+                        optSE = ExcelInputReader.convertToOptimizationSessionEntryNoWeightMap(session, flights,
+                                o.getOptId(), session.getFlightRegistry());
+                    } else {
+                        optSE = ExcelInputReader.convertToOptimizationSessionEntryNoWeightMap(session, flights, o.getOptId());
+                    }
+                    Path target = Paths.get(directory, name + "-" + o.getOptId() + extension);
+                    if (!JsonOutputWriter.writeToFile(target.toString(), optSE, compact)) {
+                        // the error has been logged by the writer, an incomplete file is removed
+                        if (Files.isRegularFile(target)) {
+                            Files.delete(target);
+                        }
+                        report.setMessage("Could not write '" + target + "'.");
+                        break;
+                    }
+                    report.getTargets().add(target.toString());
+                }
+                report.setSucceeded(report.getMessage() == null);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not convert excel source file '" + source + "'.", e);
+            report.setMessage(e.toString());
+        }
+        report.setMillis((System.nanoTime() - start) / 1000000);
+        return report;
+    }
+}
@@ -0,0 +1,101 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Summary of a batch conversion (option -batch): successes, failures and the time of each source file.
+ * Written as JSON file next to the generated files.
+ */
+public class BatchReport {
+    private int succeeded;
+    private int failed;
+    private long millis;
+    private List<FileReport> files = new LinkedList<FileReport>();
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+
+    public List<FileReport> getFiles() {
+        return files;
+    }
+
+    /**
+     * Adds the result of a source file (files are reported in the order of the sources).
+     * @param file result of a source file
+     */
+    public void addFile(FileReport file) {
+        files.add(file);
+        if (file.isSucceeded()) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+    }
+
+    /**
+     * Result of the conversion of one source file.
+     */
+    public static class FileReport {
+        private final String source;
+        private boolean succeeded;
+        private String message;
+        private long millis;
+        private List<String> targets = new LinkedList<String>();
+
+        public FileReport(String source) {
+            this.source = source;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public boolean isSucceeded() {
+            return succeeded;
+        }
+
+        public void setSucceeded(boolean succeeded) {
+            this.succeeded = succeeded;
+        }
+
+        /**
+         * @return reason of the failure, or null if the conversion succeeded
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public void setMillis(long millis) {
+            this.millis = millis;
+        }
+
+        /**
+         * @return generated files (one per optimization of the source file)
+         */
+        public List<String> getTargets() {
+            return targets;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * Opens buffered file streams, which are compressed according to the extension of the file name: '.gz' (gzip) or
+ * '.zst' (Zstandard), e.g. 'session.json.gz'. Other files are neither compressed nor decompressed. The data is
+ * compressed while it is written (streaming), the uncompressed file is never stored.
+ */
+public final class CompressedFileStreams {
+    public static final String GZIP_EXTENSION = ".gz";
+    public static final String ZSTD_EXTENSION = ".zst";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * default level of the zstd command line tool (fast, ratio similar to gzip -9 for JSON)
+     */
+    private static final int ZSTD_LEVEL = 3;
+
+    private CompressedFileStreams() {
+    }
+
+    /**
+     * @param fileName name of file
+     * @return extension of the compression ('.gz' or '.zst'), or an empty string if the file is not compressed
+     */
+    public static String getCompressionExtension(String fileName) {
+        if (fileName != null) {
+            String lowerCaseName = fileName.toLowerCase();
+            if (lowerCaseName.endsWith(GZIP_EXTENSION)) {
+                return fileName.substring(fileName.length() - GZIP_EXTENSION.length());
+            } else if (lowerCaseName.endsWith(ZSTD_EXTENSION)) {
+                return fileName.substring(fileName.length() - ZSTD_EXTENSION.length());
+            }
+        }
+        return "";
+    }
+
+    /**
+     * @param fileName name of file
+     * @return name of file without the extension of the compression (e.g. 'session.json' for 'session.json.gz')
+     */
+    public static String removeCompressionExtension(String fileName) {
+        return fileName.substring(0, fileName.length() - getCompressionExtension(fileName).length());
+    }
+
+    /**
+     * @param fileName name of file, which is created/updated
+     * @return buffered output stream, which compresses according to the extension of the file name
+     * @throws IOException if the file cannot be opened
+     */
+    public static OutputStream newOutputStream(String fileName) throws IOException {
+        OutputStream out = new FileOutputStream(fileName);
+        try {
+            String compression = getCompressionExtension(fileName).toLowerCase();
+            if (compression.equals(GZIP_EXTENSION)) {
+                return new BufferedOutputStream(new GZIPOutputStream(out, BUFFER_SIZE), BUFFER_SIZE);
+            } else if (compression.equals(ZSTD_EXTENSION)) {
+                return new BufferedOutputStream(new ZstdOutputStream(out, ZSTD_LEVEL), BUFFER_SIZE);
+            }
+            return new BufferedOutputStream(out, BUFFER_SIZE);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param fileName name of file, which is read
+     * @return buffered input stream, which decompresses according to the extension of the file name
+     * @throws IOException if the file cannot be opened
+     */
+    public static InputStream newInputStream(String fileName) throws IOException {
+        InputStream in = new FileInputStream(fileName);
+        try {
+            String compression = getCompressionExtension(fileName).toLowerCase();
+            if (compression.equals(GZIP_EXTENSION)) {
+                return new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+            } else if (compression.equals(ZSTD_EXTENSION)) {
+                return new BufferedInputStream(new ZstdInputStream(in), BUFFER_SIZE);
+            }
+            return new BufferedInputStream(in, BUFFER_SIZE);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+}
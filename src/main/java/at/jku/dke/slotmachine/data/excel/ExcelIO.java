@@ -1,7 +1,13 @@
 package at.jku.dke.slotmachine.data.excel;
 
+import java.io.File;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
 
 import org.apache.commons.cli.*;
 import org.apache.logging.log4j.LogManager;
@@ -13,13 +19,21 @@ public class ExcelIO {
     private static final Logger logger = LogManager.getLogger();
 
     public static void main(String[] args) {
+        run(args);
+    }
+
+    /**
+     * Runs the commands of the given command line arguments (the same as main, but can be called more than once
+     * in the same JVM, e.g. by ExcelIOServer).
+     * @param args command line arguments
+     */
+    public static void run(String[] args) {
         Options options = getCommandLineOptions();
         CommandLineParser parser = new DefaultParser();
         
         List<MarginEntry> margins = new LinkedList<MarginEntry>();
         List<OptimizationEntry> opts = new LinkedList<OptimizationEntry>();
         List<List<Flight>> flightLists = new LinkedList<List<Flight>>();
-        List<Flight> flights = new LinkedList<Flight>();
 
         try {
             CommandLine line = parser.parse(options, args);
@@ -31,11 +45,31 @@ public class ExcelIO {
                 return;
             }
             
+            // keeps the JVM running and executes the commands of HTTP requests (see ExcelIOServer)
+            if (line.hasOption("serve")) {
+            	int port = ExcelIOServer.DEFAULT_PORT;
+            	if (line.getOptionValue("serve") != null) {
+            		try {
+            			port = Integer.parseInt(line.getOptionValue("serve"));
+            		} catch (NumberFormatException e) {
+            			logger.error("Port '" + line.getOptionValue("serve") + "' is not a number. Port " + port + " is used.");
+            		}
+            	}
+            	// requests are executed in parallel, with all available processors if -threads is not given
+            	ExcelIOServer.serve(port, line.hasOption("threads") ? getThreads(line) : 0);
+            	return;
+            }
+            
+            // records wall time, CPU time and allocated bytes of each phase (see PipelineMetrics)
+            if (line.hasOption("metrics")) {
+            	PipelineMetrics.enable();
+            }
+            
             // converts margins from Excel source files to JSON string
             if (line.hasOption("cm")) {
             	String fileSource = "";
             	String jsonTarget = "";
-            	logger.info("convert margins from Excel source file to JSON string, uses only the first optimization entry");
+            	logger.info("convert margins from Excel source file to JSON string, one list of flights per optimization entry");
             	
             	// look for given command line arguments of "cm"-option
             		// fileSource is required, jsonTarget is not required
@@ -46,14 +80,14 @@ public class ExcelIO {
             		fileSource = line.getOptionValues("cm")[0];
             		logger.info("Source location for Excel file is: " + fileSource + ". Output file target is not given.");
             	} else if (line.getOptionValues("cm")[0].indexOf(".") != -1 && 
-            			line.getOptionValues("cm")[0].substring(line.getOptionValues("cm")[0].lastIndexOf(".")).equals(".json") &&
+            			JsonMappers.isSessionFile(line.getOptionValues("cm")[0]) &&
             			line.getOptionValues("cm").length == 1) {
             		// input file given, no output file
             		jsonTarget = line.getOptionValues("cm")[0];
             		logger.info("Source location for Excel file is not given. Output file target is: " + jsonTarget + ".");
             	} else if (line.getOptionValues("cm")[0].indexOf(".") != -1 && line.getOptionValues("cm").length == 2 &&
             			line.getOptionValues("cm")[0].substring(line.getOptionValues("cm")[0].lastIndexOf(".")).equals(".xlsx") &&
-            			line.getOptionValues("cm")[1].substring(line.getOptionValues("cm")[1].lastIndexOf(".")).equals(".json")) {
+            			JsonMappers.isSessionFile(line.getOptionValues("cm")[1])) {
             		// input file given, output file given
             		fileSource = line.getOptionValues("cm")[0];
             		jsonTarget = line.getOptionValues("cm")[1];
@@ -67,19 +101,18 @@ public class ExcelIO {
             		logger.info("No input given, therefore margins have not been converted.");
             	} else {
             		// input file given
-                	margins = ExcelInputReader.readMarginsFromFile(fileSource);
-                	opts = ExcelInputReader.readOptimizationsFromFile(fileSource);
-                	for (OptimizationEntry o: opts) {
-                		flightLists.add(FlightGenerator.generateFlights(margins, o));
-                	}
-                	//flights = FlightGenerator.generateFlights(margins, opts.get(0));
+            		try (ExcelWorkbookSession source = new ExcelWorkbookSession(fileSource)) {
+            			margins = ExcelInputReader.readMarginsFromFile(source);
+            			opts = ExcelInputReader.readOptimizationsFromFile(source);
+            		}
+                	flightLists.addAll(FlightGenerator.generateFlights(margins, opts, getThreads(line)));
             	}
             	if (jsonTarget.equals("") && !(fileSource.equals(""))) {
             		// no output file given, print result to System.out
             		System.out.println(JsonOutputWriter.writeToString(flightLists));
             	} else if (!(fileSource.equals(""))){
             		// output file given, write result to file
-                	JsonOutputWriter.writeToFile(jsonTarget, flightLists);
+                	JsonOutputWriter.writeToFile(getSessionFileName(line, jsonTarget), flightLists, line.hasOption("compact"));
             	}
             }
             
@@ -99,14 +132,14 @@ public class ExcelIO {
             		fileSource = line.getOptionValues("cmw")[0];
             		logger.info("Source location for Excel file is: " + fileSource + ". Output file target is not given.");
             	} else if (line.getOptionValues("cmw")[0].indexOf(".") != -1 && 
-            			line.getOptionValues("cmw")[0].substring(line.getOptionValues("cmw")[0].lastIndexOf(".")).equals(".json") &&
+            			JsonMappers.isSessionFile(line.getOptionValues("cmw")[0]) &&
             			line.getOptionValues("cmw").length == 1) {
             		// input file given, no output file (json)
             		jsonTarget = line.getOptionValues("cmw")[0];
             		logger.info("Source location for Excel file is not given. Output file target is: " + jsonTarget + ".");
             	} else if (line.getOptionValues("cmw")[0].indexOf(".") != -1 && line.getOptionValues("cmw").length == 2 &&
             			line.getOptionValues("cmw")[0].substring(line.getOptionValues("cmw")[0].lastIndexOf(".")).equals(".xlsx") &&
-            			line.getOptionValues("cmw")[1].substring(line.getOptionValues("cmw")[1].lastIndexOf(".")).equals(".json")) {
+            			JsonMappers.isSessionFile(line.getOptionValues("cmw")[1])) {
             		// input file given, output file given (json)
             		fileSource = line.getOptionValues("cmw")[0];
             		jsonTarget = line.getOptionValues("cmw")[1];
@@ -115,32 +148,33 @@ public class ExcelIO {
             		// no expected input
             		logger.info("No expected arguments found.");
             	}
-            	if (fileSource.equals("")) {
-            		// no input file
-            		logger.info("No input given, therefore margins have not been converted.");
-            	} else {
-            		// input file given
-                	margins = ExcelInputReader.readMarginsFromFile(fileSource);
-                	opts = ExcelInputReader.readOptimizationsFromFile(fileSource);
-                	for (OptimizationEntry o: opts) {
-                		flightLists.add(FlightGenerator.generateFlights(margins, o));
-                	}
-            	}
-            	if (jsonTarget.equals("") && !(fileSource.equals(""))) {
-            		// no output file given, print result to System.out
-            		System.out.println(JsonOutputWriter.writeToString(flightLists));
-            		// generate new excel files with weights
-            		for (OptimizationEntry o: opts) {
-            			String fileName = "flights-" + o.getOptId() + ".xlsx";
-            			ExcelOutputWriter.writeWeightsToFile(FlightGenerator.generateFlights(margins,o), o, fileName, fileSource);
+            	try (ExcelWorkbookSession source = new ExcelWorkbookSession(fileSource)) {
+            		if (fileSource.equals("")) {
+            			// no input file
+            			logger.info("No input given, therefore margins have not been converted.");
+            		} else {
+            			// input file given
+                		margins = ExcelInputReader.readMarginsFromFile(source);
+                		opts = ExcelInputReader.readOptimizationsFromFile(source);
+                		flightLists.addAll(FlightGenerator.generateFlights(margins, opts, getThreads(line)));
             		}
-            	} else if (!(fileSource.equals(""))){
-            		// output file given, write result to file
-                	JsonOutputWriter.writeToFile(jsonTarget, flightLists);
-                	// generate new excel file with weights
-            		for (OptimizationEntry o: opts) {
-            			String fileName = "flights-" + o.getOptId() + ".xlsx";
-            			ExcelOutputWriter.writeWeightsToFile(FlightGenerator.generateFlights(margins,o), o, fileName, fileSource);
+            		if (jsonTarget.equals("") && !(fileSource.equals(""))) {
+            			// no output file given, print result to System.out
+            			System.out.println(JsonOutputWriter.writeToString(flightLists));
+            		} else if (!(fileSource.equals(""))){
+            			// output file given, write result to file
+                		JsonOutputWriter.writeToFile(getSessionFileName(line, jsonTarget), flightLists, line.hasOption("compact"));
+            		}
+            		if (!(fileSource.equals(""))) {
+            			// generate new excel files with weights (the flights generated above are used)
+            			List<OptimizationEntry> optList = opts;
+            			List<List<Flight>> optFlights = flightLists;
+            			forEachOptimization(optList.size(), getThreads(line), i -> {
+            				OptimizationEntry o = optList.get(i);
+            				String fileName = "flights-" + o.getOptId() + ".xlsx";
+            				ExcelOutputWriter.writeWeightsToFile(optFlights.get(i), o, fileName, source, 
+            						getWeightMapLayout(line), getRowWindow(line));
+            			});
             		}
             	}
             }
@@ -150,85 +184,96 @@ public class ExcelIO {
             	String excelSource = "";
             	String jsonSource = "";
             	String excelTarget = "";
+            	ExcelWorkbookSession targetSession = null;
             	logger.info("write results of optimization algorithms to Excel file");
             	
-            	// look for given command line arguments of "wr"-option
-        			// excelSource is not required, jsonSource is required, excelTarget is required
-            	if (line.getOptionValues("wr")[0].indexOf(".") != -1 &&
-            			line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".xlsx") &&
-            			line.getOptionValues("wr").length == 1) {
-            		// only one excel file given, could be either excelSource or excelTarget
-            		boolean isTarget = ExcelInputReader.isTargetFile(line.getOptionValues("wr")[0]);
-            		if (!isTarget) {
+            	try {
+            		// look for given command line arguments of "wr"-option
+        				// excelSource is not required, jsonSource is required, excelTarget is required
+            		if (line.getOptionValues("wr")[0].indexOf(".") != -1 &&
+            				line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".xlsx") &&
+            				line.getOptionValues("wr").length == 1) {
+            			// only one excel file given, could be either excelSource or excelTarget
+            			targetSession = new ExcelWorkbookSession(line.getOptionValues("wr")[0]);
+            			boolean isTarget = ExcelInputReader.isTargetFile(targetSession);
+            			if (!isTarget) {
+            				excelSource = line.getOptionValues("wr")[0];
+                			logger.info("Source location for Excel file is: " + excelSource + ". " + 
+                					"Source location for JSON file is not given. Output file target is not given."); 
+            			} else {
+            				excelTarget = line.getOptionValues("wr")[0];
+                			logger.info("Source location for Excel file is not given. " + 
+                					"Source location for JSON file is not given. Output file target is: " + excelTarget + "."); 
+            			}
+            		} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 &&
+            				JsonMappers.isSessionFile(line.getOptionValues("wr")[0]) &&
+            				line.getOptionValues("wr").length == 1) {
+            			jsonSource = line.getOptionValues("wr")[0];
+            			logger.info("Source location for Excel file is not given. " + 
+            					"Source location for JSON file is: " + jsonSource + ". Output file target is not given."); 
+            		} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 && line.getOptionValues("wr").length == 2 &&
+            				line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".xlsx") &&
+            				JsonMappers.isSessionFile(line.getOptionValues("wr")[1])) {
             			excelSource = line.getOptionValues("wr")[0];
-                		logger.info("Source location for Excel file is: " + excelSource + ". " + 
-                				"Source location for JSON file is not given. Output file target is not given."); 
+            			jsonSource = line.getOptionValues("wr")[1];
+            			logger.info("Source location for Excel file is: " + excelSource + ". " + 
+            					"Source location for JSON file is: " + jsonSource + ". Output file target is not given."); 
+            		} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 && line.getOptionValues("wr").length == 2 &&
+            				JsonMappers.isSessionFile(line.getOptionValues("wr")[0]) &&
+            				line.getOptionValues("wr")[1].substring(line.getOptionValues("wr")[1].lastIndexOf(".")).equals(".xlsx")) {
+            			jsonSource = line.getOptionValues("wr")[0];
+            			excelTarget = line.getOptionValues("wr")[1];
+            			logger.info("Source location for Excel file is not given. " + 
+            					"Source location for JSON file is: " + jsonSource + ". Output file target is: " + excelTarget + "."); 
+            		} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 && line.getOptionValues("wr").length == 2 &&
+            				line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".xlsx") &&
+            				line.getOptionValues("wr")[1].substring(line.getOptionValues("wr")[1].lastIndexOf(".")).equals(".xlsx")) {
+            			excelSource = line.getOptionValues("wr")[0];
+            			excelTarget = line.getOptionValues("wr")[1];
+            			logger.info("Source location for Excel file is:" + excelSource + ". " + 
+            					"Source location for JSON file is not given. Output file target is: " + excelTarget + "."); 
+            		} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 && line.getOptionValues("wr").length == 3 &&
+            				line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".xlsx") &&
+            				JsonMappers.isSessionFile(line.getOptionValues("wr")[1]) &&
+            				line.getOptionValues("wr")[2].substring(line.getOptionValues("wr")[2].lastIndexOf(".")).equals(".xlsx")) {
+            			excelSource = line.getOptionValues("wr")[0];
+            			jsonSource = line.getOptionValues("wr")[1];
+            			excelTarget = line.getOptionValues("wr")[2];
+            			logger.info("Source location for Excel file is: " + excelSource + ". " + 
+            					"Source location for JSON file is: " + jsonSource + ". Output file target is: " + excelTarget + "."); 
             		} else {
-            			excelTarget = line.getOptionValues("wr")[0];
-                		logger.info("Source location for Excel file is not given. " + 
-                				"Source location for JSON file is not given. Output file target is: " + excelTarget + "."); 
+            			logger.info("No expected arguments found.");
             		}
-            	} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 &&
-            			line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".json") &&
-            			line.getOptionValues("wr").length == 1) {
-            		jsonSource = line.getOptionValues("wr")[0];
-            		logger.info("Source location for Excel file is not given. " + 
-            				"Source location for JSON file is: " + jsonSource + ". Output file target is not given."); 
-            	} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 && line.getOptionValues("wr").length == 2 &&
-            			line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".xlsx") &&
-            			line.getOptionValues("wr")[1].substring(line.getOptionValues("wr")[1].lastIndexOf(".")).equals(".json")) {
-            		excelSource = line.getOptionValues("wr")[0];
-            		jsonSource = line.getOptionValues("wr")[1];
-            		logger.info("Source location for Excel file is: " + excelSource + ". " + 
-            				"Source location for JSON file is: " + jsonSource + ". Output file target is not given."); 
-            	} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 && line.getOptionValues("wr").length == 2 &&
-            			line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".json") &&
-            			line.getOptionValues("wr")[1].substring(line.getOptionValues("wr")[1].lastIndexOf(".")).equals(".xlsx")) {
-            		jsonSource = line.getOptionValues("wr")[0];
-            		excelTarget = line.getOptionValues("wr")[1];
-            		logger.info("Source location for Excel file is not given. " + 
-            				"Source location for JSON file is: " + jsonSource + ". Output file target is: " + excelTarget + "."); 
-            	} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 && line.getOptionValues("wr").length == 2 &&
-            			line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".xlsx") &&
-            			line.getOptionValues("wr")[1].substring(line.getOptionValues("wr")[1].lastIndexOf(".")).equals(".xlsx")) {
-            		excelSource = line.getOptionValues("wr")[0];
-            		excelTarget = line.getOptionValues("wr")[1];
-            		logger.info("Source location for Excel file is:" + excelSource + ". " + 
-            				"Source location for JSON file is not given. Output file target is: " + excelTarget + "."); 
-            	} else if (line.getOptionValues("wr")[0].indexOf(".") != -1 && line.getOptionValues("wr").length == 3 &&
-            			line.getOptionValues("wr")[0].substring(line.getOptionValues("wr")[0].lastIndexOf(".")).equals(".xlsx") &&
-            			line.getOptionValues("wr")[1].substring(line.getOptionValues("wr")[1].lastIndexOf(".")).equals(".json") &&
-            			line.getOptionValues("wr")[2].substring(line.getOptionValues("wr")[2].lastIndexOf(".")).equals(".xlsx")) {
-            		excelSource = line.getOptionValues("wr")[0];
-            		jsonSource = line.getOptionValues("wr")[1];
-            		excelTarget = line.getOptionValues("wr")[2];
-            		logger.info("Source location for Excel file is: " + excelSource + ". " + 
-            				"Source location for JSON file is: " + jsonSource + ". Output file target is: " + excelTarget + "."); 
-            	} else {
-            		logger.info("No expected arguments found.");
-            	}
-            	if (jsonSource.equals("")) {
-            		// no JSON input
-            		// necessary information from JSON source are the assigned slots (and the optId to create the 
-            		// FlightSequenceEntry object)
-            		logger.info("No input of JSON result file given, therefore no results have been written to target file.");
-            	}
-            	if (excelTarget.equals("")) {
-            		// no excel target file
-            		// nothing to return/update
-            		if (!(jsonSource.equals(""))) {
-            			logger.info("No target excel file was given, therefore no results have been written to target file.");
+            		if (jsonSource.equals("")) {
+            			// no JSON input
+            			// necessary information from JSON source are the assigned slots (and the optId to create the 
+            			// FlightSequenceEntry object)
+            			logger.info("No input of JSON result file given, therefore no results have been written to target file.");
             		}
-            	} else {
-            		if (!(jsonSource.equals(""))) {
-            			
-            			OptimizationEntry optEntry = ExcelInputReader.readOptimizationFromTargetFile(excelTarget);
-                    	FlightSequenceEntry sequence = JsonInputReader.readFlightSequenceFromFile(jsonSource);
-                    	if (sequence.getOptId().equals(optEntry.getOptId())) {
-                    		ExcelOutputWriter.writeFlightSequenceOrder(sequence, excelTarget, optEntry);
-                    	} else {
-                    		logger.info("Wrong file according to optimization session id! Therefore, no results have been written to target file.");
-                    	}
+            		if (excelTarget.equals("")) {
+            			// no excel target file
+            			// nothing to return/update
+            			if (!(jsonSource.equals(""))) {
+            				logger.info("No target excel file was given, therefore no results have been written to target file.");
+            			}
+            		} else {
+            			if (!(jsonSource.equals(""))) {
+            				if (targetSession == null) {
+            					targetSession = new ExcelWorkbookSession(excelTarget);
+            				}
+            				OptimizationEntry optEntry = ExcelInputReader.readOptimizationFromTargetFile(targetSession);
+                    		FlightSequenceEntry sequence = JsonInputReader.readFlightSequenceFromFile(jsonSource);
+                    		if (sequence.getOptId().equals(optEntry.getOptId())) {
+                    			ExcelOutputWriter.writeFlightSequenceOrder(sequence, targetSession, optEntry);
+                    		} else {
+                    			logger.info("Wrong file according to optimization session id! Therefore, no results have been written to target file.");
+                    		}
+            			}
+            		}
+            	} finally {
+            		// the session is closed even if reading or writing fails (e.g. in -serve mode)
+            		if (targetSession != null) {
+            			targetSession.close();
             		}
             	}
             }
@@ -250,14 +295,14 @@ public class ExcelIO {
             		excelSource = line.getOptionValues("ctj")[0];
             		logger.info("Source location for Excel file is: " + excelSource + ". Output file target is not given.");
             	} else if (line.getOptionValues("ctj")[0].indexOf(".") != -1 && 
-            			line.getOptionValues("ctj")[0].substring(line.getOptionValues("ctj")[0].lastIndexOf(".")).equals(".json") &&
+            			JsonMappers.isSessionFile(line.getOptionValues("ctj")[0]) &&
             			line.getOptionValues("ctj").length == 1) {
             		// input file given, no output file (json)
             		jsonTarget = line.getOptionValues("ctj")[0];
             		logger.info("Source location for Excel file is not given. Output file target is: " + jsonTarget + ".");
             	} else if (line.getOptionValues("ctj")[0].indexOf(".") != -1 && line.getOptionValues("ctj").length == 2 &&
             			line.getOptionValues("ctj")[0].substring(line.getOptionValues("ctj")[0].lastIndexOf(".")).equals(".xlsx") &&
-            			line.getOptionValues("ctj")[1].substring(line.getOptionValues("ctj")[1].lastIndexOf(".")).equals(".json")) {
+            			JsonMappers.isSessionFile(line.getOptionValues("ctj")[1])) {
             		// input file given, output file given (json)
             		excelSource = line.getOptionValues("ctj")[0];
             		jsonTarget = line.getOptionValues("ctj")[1];
@@ -279,7 +324,7 @@ public class ExcelIO {
             		System.out.println(JsonOutputWriter.writeToString(optSE));
             	} else if (!(excelSource.equals(""))){
             		// output file given, write results to file
-            		JsonOutputWriter.writeToFile(jsonTarget, optSE);
+            		JsonOutputWriter.writeToFile(getSessionFileName(line, jsonTarget), optSE, line.hasOption("compact"), line.hasOption("sparse"));
             	}
             }
             
@@ -287,7 +332,6 @@ public class ExcelIO {
             	logger.info("generate json file for optimizer with generated weight map from excel source file");
             	String excelSource = "";
             	String jsonTarget = "";
-            	OptimizationSessionEntry optSE = null;
             	
             	// look for given command line arguments of "cmtj"-option
         			// excelSource is required, jsonTarget is not required
@@ -298,14 +342,14 @@ public class ExcelIO {
             		excelSource = line.getOptionValues("cmtj")[0];
             		logger.info("Source location for Excel file is: " + excelSource + ". Output file target is not given.");
             	} else if (line.getOptionValues("cmtj")[0].indexOf(".") != -1 && 
-            			line.getOptionValues("cmtj")[0].substring(line.getOptionValues("cmtj")[0].lastIndexOf(".")).equals(".json") &&
+            			JsonMappers.isSessionFile(line.getOptionValues("cmtj")[0]) &&
             			line.getOptionValues("cmtj").length == 1) {
             		// input file given, no output file (json)
             		jsonTarget = line.getOptionValues("cmtj")[0];
             		logger.info("Source location for Excel file is not given. Output file target is: " + jsonTarget + ".");
             	} else if (line.getOptionValues("cmtj")[0].indexOf(".") != -1 && line.getOptionValues("cmtj").length == 2 &&
             			line.getOptionValues("cmtj")[0].substring(line.getOptionValues("cmtj")[0].lastIndexOf(".")).equals(".xlsx") &&
-            			line.getOptionValues("cmtj")[1].substring(line.getOptionValues("cmtj")[1].lastIndexOf(".")).equals(".json")) {
+            			JsonMappers.isSessionFile(line.getOptionValues("cmtj")[1])) {
             		// input file given, output file given (json)
             		excelSource = line.getOptionValues("cmtj")[0];
             		jsonTarget = line.getOptionValues("cmtj")[1];
@@ -317,33 +361,46 @@ public class ExcelIO {
             	
             	// write no excel file
             	if (!(excelSource.equals(""))) {
-            		margins = ExcelInputReader.readMarginsFromFile(excelSource);
-            		opts = ExcelInputReader.readOptimizationsFromFile(excelSource);
+            		try (ExcelWorkbookSession source = new ExcelWorkbookSession(excelSource)) {
+            			margins = ExcelInputReader.readMarginsFromFile(source);
+            			opts = ExcelInputReader.readOptimizationsFromFile(source);
             		
-            		// for each optimization entry generate a new file or console output
-                	for (OptimizationEntry o: opts) {
-                		flightLists.add(FlightGenerator.generateFlights(margins, o));
-                		// use of other convert method, due to no existing weight map in excel file
-                    	if (line.hasOption("margins")) {
-                    		// if margins is active as an option, include margins in generated JSON file
-                    		logger.info("Margins will be included in the generated JSON file.");
-                    		optSE = ExcelInputReader.convertToOptimizationSessionEntryNoWeightMap(excelSource, 
-                    				FlightGenerator.generateFlights(margins, o), o.getOptId(), margins);
-                    	} else {
-                    		optSE = ExcelInputReader.convertToOptimizationSessionEntryNoWeightMap(excelSource, 
-                    				FlightGenerator.generateFlights(margins, o), o.getOptId());
-                    	}
-                		
-                		if (!(jsonTarget.equals(""))) {
-                    		// write to json file
-                			String jsonFileName = jsonTarget.substring(0,jsonTarget.length()-5) + "-" + o.getOptId() + ".json";
-                    		JsonOutputWriter.writeToFile(jsonFileName, optSE);
-                    	} else {
-                    		// write to console
-                    		System.out.println(JsonOutputWriter.writeToString(optSE));          	
-                    	}
-                	}
+            			// the flights of all optimizations are generated once (sheet 'Flights' is parsed only once)
+            			flightLists.addAll(FlightGenerator.generateFlights(margins, opts, getThreads(line)));
+            			if (line.hasOption("margins")) {
+            				// if margins is active as an option, include margins in generated JSON file
+            				logger.info("Margins will be included in the generated JSON file.");
+            			}
             		
+            			// for each optimization entry generate a new file or console output
+            			List<OptimizationEntry> optList = opts;
+            			List<List<Flight>> optFlights = flightLists;
+            			String target = jsonTarget;
+            			OptimizationSessionEntry[] optSEs = new OptimizationSessionEntry[optList.size()];
+            			forEachOptimization(optList.size(), getThreads(line), i -> {
+            				OptimizationEntry o = optList.get(i);
+            				// use of other convert method, due to no existing weight map in excel file
+            				if (line.hasOption("margins")) {
+            					optSEs[i] = ExcelInputReader.convertToOptimizationSessionEntryNoWeightMap(source, 
+            							optFlights.get(i), o.getOptId(), source.getFlightRegistry());
+            				} else {
+            					optSEs[i] = ExcelInputReader.convertToOptimizationSessionEntryNoWeightMap(source, 
+            							optFlights.get(i), o.getOptId());
+            				}
+            				if (!(target.equals(""))) {
+            					// write to json file
+            					String jsonFileName = getSessionFileName(line, JsonMappers.removeExtension(target) + "-" + o.getOptId() + JsonMappers.getExtension(target));
+            					JsonOutputWriter.writeToFile(jsonFileName, optSEs[i], line.hasOption("compact"), line.hasOption("sparse"));
+            					optSEs[i] = null;
+            				}
+            			});
+            			if (jsonTarget.equals("")) {
+            				// write to console (in the order of the optimizations)
+            				for (OptimizationSessionEntry optSE: optSEs) {
+            					System.out.println(JsonOutputWriter.writeToString(optSE));
+            				}
+            			}
+            		}
 
             	} else {
             		logger.info("No excel source file given, therefore it is not possible to generate the JSON file.");
@@ -355,7 +412,6 @@ public class ExcelIO {
             	logger.info("generate json file for optimizer with generated weight map from excel source file and generate new excel file");
             	String excelSource = "";
             	String jsonTarget = "";
-            	OptimizationSessionEntry optSE = null;
             	
             	// look for given command line arguments of "cmwetj"-option
         			// excelSource is required, jsonTarget is not required
@@ -366,14 +422,14 @@ public class ExcelIO {
             		excelSource = line.getOptionValues("cmwetj")[0];
             		logger.info("Source location for Excel file is: " + excelSource + ". Output file target is not given.");
             	} else if (line.getOptionValues("cmwetj")[0].indexOf(".") != -1 && 
-            			line.getOptionValues("cmwetj")[0].substring(line.getOptionValues("cmwetj")[0].lastIndexOf(".")).equals(".json") &&
+            			JsonMappers.isSessionFile(line.getOptionValues("cmwetj")[0]) &&
             			line.getOptionValues("cmwetj").length == 1) {
             		// input file given, no output file (json)
             		jsonTarget = line.getOptionValues("cmwetj")[0];
             		logger.info("Source location for Excel file is not given. Output file target is: " + jsonTarget + ".");
             	} else if (line.getOptionValues("cmwetj")[0].indexOf(".") != -1 && line.getOptionValues("cmwetj").length == 2 &&
             			line.getOptionValues("cmwetj")[0].substring(line.getOptionValues("cmwetj")[0].lastIndexOf(".")).equals(".xlsx") &&
-            			line.getOptionValues("cmwetj")[1].substring(line.getOptionValues("cmwetj")[1].lastIndexOf(".")).equals(".json")) {
+            			JsonMappers.isSessionFile(line.getOptionValues("cmwetj")[1])) {
             		// input file given, output file given (json)
             		excelSource = line.getOptionValues("cmwetj")[0];
             		jsonTarget = line.getOptionValues("cmwetj")[1];
@@ -385,29 +441,46 @@ public class ExcelIO {
             	
             	// write excel file
             	if (!(excelSource.equals(""))) {
-            		margins = ExcelInputReader.readMarginsFromFile(excelSource);
-            		opts = ExcelInputReader.readOptimizationsFromFile(excelSource);
-                	for (OptimizationEntry o: opts) {
-                		flights = FlightGenerator.generateFlights(margins, o);
-                		flightLists.add(flights);
-                		String fileName = "flights-" + o.getOptId() + ".xlsx";
-                    	ExcelOutputWriter.writeWeightsToFile(flights, o, fileName, excelSource);
-                    	if (line.hasOption("margins")) {
-                    		// if margins is active as an option, include margins in generated JSON file
-                    		logger.info("Margins will be included in the generated JSON file.");
-                    		optSE = ExcelInputReader.convertToOptimizationSessionEntry(fileName, margins);
-                    	} else {
-                    		optSE = ExcelInputReader.convertToOptimizationSessionEntry(fileName);
-                    	}
-                    	if (!(jsonTarget.equals(""))) {
-                    		// write to json file
-                			String jsonFileName = jsonTarget.substring(0,jsonTarget.length()-5) + "-" + o.getOptId() + ".json";
-                    		JsonOutputWriter.writeToFile(jsonFileName, optSE);
-                    	} else {
-                    		// write to console
-                    		System.out.println(JsonOutputWriter.writeToString(optSE));          	
-                    	}
-                	}
+            		try (ExcelWorkbookSession source = new ExcelWorkbookSession(excelSource)) {
+            			margins = ExcelInputReader.readMarginsFromFile(source);
+            			opts = ExcelInputReader.readOptimizationsFromFile(source);
+            			// the flights of all optimizations are generated once (sheet 'Flights' is parsed only once)
+            			flightLists.addAll(FlightGenerator.generateFlights(margins, opts, getThreads(line)));
+            			if (line.hasOption("margins")) {
+            				// if margins is active as an option, include margins in generated JSON file
+            				logger.info("Margins will be included in the generated JSON file.");
+            			}
+            		
+            			// for each optimization entry generate a new excel file and a new JSON file or console output
+            			List<OptimizationEntry> optList = opts;
+            			List<List<Flight>> optFlights = flightLists;
+            			String jsonFile = jsonTarget;
+            			OptimizationSessionEntry[] optSEs = new OptimizationSessionEntry[optList.size()];
+            			forEachOptimization(optList.size(), getThreads(line), i -> {
+            				OptimizationEntry o = optList.get(i);
+            				String fileName = "flights-" + o.getOptId() + ".xlsx";
+            				ExcelOutputWriter.writeWeightsToFile(optFlights.get(i), o, fileName, source, getWeightMapLayout(line), getRowWindow(line));
+            				try (ExcelWorkbookSession target = new ExcelWorkbookSession(fileName)) {
+            					if (line.hasOption("margins")) {
+            						optSEs[i] = ExcelInputReader.convertToOptimizationSessionEntry(target, source.getFlightRegistry());
+            					} else {
+            						optSEs[i] = ExcelInputReader.convertToOptimizationSessionEntry(target);
+            					}
+            				}
+            				if (!(jsonFile.equals(""))) {
+            					// write to json file
+            					String jsonFileName = getSessionFileName(line, JsonMappers.removeExtension(jsonFile) + "-" + o.getOptId() + JsonMappers.getExtension(jsonFile));
+            					JsonOutputWriter.writeToFile(jsonFileName, optSEs[i], line.hasOption("compact"), line.hasOption("sparse"));
+            					optSEs[i] = null;
+            				}
+            			});
+            			if (jsonTarget.equals("")) {
+            				// write to console (in the order of the optimizations)
+            				for (OptimizationSessionEntry optSE: optSEs) {
+            					System.out.println(JsonOutputWriter.writeToString(optSE));
+            				}
+            			}
+            		}
             		
             	} else {
             		logger.info("No excel source file given, therefore it is not possible to generate the JSON file.");
@@ -415,29 +488,181 @@ public class ExcelIO {
             	
             }
             
+            // converts all excel source files of a directory (or glob pattern) to JSON files for the optimizer (as -cmtj)
+            if (line.hasOption("batch")) {
+            	String[] values = line.getOptionValues("batch");
+            	String targetDirectory = values.length > 1 ? values[1] : null;
+            	String extension = values.length > 2 ? values[2] : JsonMappers.JSON_EXTENSION;
+            	if (!JsonMappers.isSessionFile(extension)) {
+            		logger.info("Extension '" + extension + "' is not supported, generated files are written as '" + JsonMappers.JSON_EXTENSION + "'.");
+            		extension = JsonMappers.JSON_EXTENSION;
+            	}
+            	// an unquoted glob pattern is expanded by the shell, then the second source file would be the target directory
+            	List<String> sources = null;
+            	if (values.length > 3 || (targetDirectory != null && 
+            			(targetDirectory.toLowerCase().endsWith(".xlsx") || new File(targetDirectory).isFile()))) {
+            		logger.error("Target directory '" + targetDirectory + "' is a file or more than three arguments are given, " + 
+            				"no files have been converted. Glob patterns have to be quoted (e.g. -batch 'data/*.xlsx').");
+            	} else {
+            		sources = BatchConverter.findSourceFiles(values[0]);
+            	}
+            	if (sources == null) {
+            		// invalid arguments, error has been logged
+            	} else if (sources.isEmpty()) {
+            		logger.info("No excel source files found for '" + values[0] + "'.");
+            	} else {
+            		// source files are converted in parallel, with all available processors if -threads is not given
+            		BatchConverter.convert(sources, targetDirectory, line.hasOption("margins"), line.hasOption("compact"),
+            				getSessionFileName(line, extension), line.hasOption("threads") ? getThreads(line) : 0);
+            	}
+            }
+            
             // generate test data
             if (line.hasOption("tdg")) {
             	logger.info("Generate test data for Optimizer.");
-            	if (line.getOptionValue("tdg").substring(line.getOptionValue("tdg").lastIndexOf(".")).equals(".json")) {
+            	if (JsonMappers.isSessionFile(line.getOptionValue("tdg"))) {
             		TestDataConfigDTO testDataConfig = JsonInputReader.readTestDataConfigDTO(line.getOptionValue("tdg"));
             		logger.info("Successfully read test data generator configuration file.");
 	            	String filesLocation = "";
 	            	if (line.getOptionValue("tdg") != null) {
 	            		filesLocation = line.getOptionValue("tdg");
 	            	}
-	            	TestDataGenerator.generateTestData(filesLocation, testDataConfig);
+	            	if (line.hasOption("smile")) {
+	            		// compression of the configured extension or of the configuration file is kept
+	            		String compression = CompressedFileStreams.getCompressionExtension(
+	            				testDataConfig != null && testDataConfig.getOutputExtension() != null ? testDataConfig.getOutputExtension() : filesLocation);
+	            		TestDataGenerator.generateTestData(filesLocation, testDataConfig, JsonMappers.SMILE_EXTENSION + compression, getThreads(line));
+	            	} else {
+	            		TestDataGenerator.generateTestData(filesLocation, testDataConfig, getThreads(line));
+	            	}
             	} else {
             		logger.info("No JSON file found. No test data generated.");
             	}
             }
             
+            if (line.hasOption("metrics")) {
+            	writeMetrics(line.getOptionValue("metrics"));
+            }
             
         } catch (ParseException e) {
             logger.error("Could not parse command line options.", e);
         }
     }
 
-    private static Options getCommandLineOptions() {
+    /**
+     * Stops recording the phases, prints the summary table to System.err (System.out may contain the generated
+     * JSON) and writes the metrics to the given JSON file.
+     * @param metricsFile name of the JSON file, or null if only the summary table is printed
+     */
+    private static void writeMetrics(String metricsFile) {
+    	PipelineMetrics metrics = PipelineMetrics.disable();
+    	if (metrics == null) {
+    		return;
+    	}
+    	System.err.print(metrics.toTable());
+    	if (metricsFile != null) {
+    		JsonOutputWriter.writeToFile(metricsFile, metrics);
+    	}
+    }
+    
+    /**
+     * @param line parsed command line
+     * @param jsonTarget name of the JSON (or Smile) output file
+     * @return name of the output file, with extension '.smile' if option -smile is given
+     */
+    private static String getSessionFileName(CommandLine line, String jsonTarget) {
+    	if (line.hasOption("smile") && !JsonMappers.isSmileFile(jsonTarget)) {
+    		// compression of the target (e.g. '.json.gz') is kept
+    		return JsonMappers.removeExtension(jsonTarget) + JsonMappers.SMILE_EXTENSION + 
+    				CompressedFileStreams.getCompressionExtension(jsonTarget);
+    	}
+    	return jsonTarget;
+    }
+
+    /**
+     * @param line parsed command line
+     * @return layout of the weight maps in generated excel files (option -matrix)
+     */
+    private static WeightMapLayout getWeightMapLayout(CommandLine line) {
+    	if (line.hasOption("matrix")) {
+    		return WeightMapLayout.MATRIX;
+    	}
+    	return WeightMapLayout.SHEET_PER_FLIGHT;
+    }
+    
+    /**
+     * Executes the action for each optimization (index 0 to count - 1), in parallel if more than one thread is given.
+     * @param count number of optimizations
+     * @param threads number of threads (1 executes the actions sequentially, 0 or less uses all available processors)
+     * @param action action for the index of an optimization
+     */
+    private static void forEachOptimization(int count, int threads, IntConsumer action) {
+    	if (threads <= 0) {
+    		threads = Runtime.getRuntime().availableProcessors();
+    	}
+    	if (threads == 1 || count < 2) {
+    		for (int i = 0; i < count; i++) {
+    			action.accept(i);
+    		}
+    		return;
+    	}
+    	ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, count));
+    	List<Future<?>> tasks = new LinkedList<Future<?>>();
+    	try {
+    		for (int i = 0; i < count; i++) {
+    			int index = i;
+    			tasks.add(executor.submit(() -> action.accept(index)));
+    		}
+    		for (Future<?> task: tasks) {
+    			task.get();
+    		}
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    		throw new IllegalStateException("Processing of the optimizations has been interrupted.", e);
+    	} catch (ExecutionException e) {
+    		throw new IllegalStateException("Could not process the optimizations.", e.getCause());
+    	} finally {
+    		executor.shutdown();
+    	}
+    }
+    
+    /**
+     * @param line parsed command line
+     * @return number of threads for generating weight maps (option -threads), 1 if not given, 
+     * 			0 (all available processors) if the option is given without a number
+     */
+    private static int getThreads(CommandLine line) {
+    	if (line.hasOption("threads")) {
+    		if (line.getOptionValue("threads") == null) {
+    			return 0;
+    		}
+    		try {
+    			return Integer.parseInt(line.getOptionValue("threads"));
+    		} catch (NumberFormatException e) {
+    			logger.error("Number of threads '" + line.getOptionValue("threads") + "' is not a number. All available processors are used.");
+    			return 0;
+    		}
+    	}
+    	return 1;
+    }
+    
+    /**
+     * @param line parsed command line
+     * @return rows per sheet kept in memory when writing excel files (option -rowWindow), 0 if the 
+     * 			whole workbook is built in memory
+     */
+    private static int getRowWindow(CommandLine line) {
+    	if (line.hasOption("rowWindow")) {
+    		try {
+    			return Integer.parseInt(line.getOptionValue("rowWindow"));
+    		} catch (NumberFormatException e) {
+    			logger.error("Row window '" + line.getOptionValue("rowWindow") + "' is not a number. Whole workbook is built in memory.");
+    		}
+    	}
+    	return 0;
+    }
+    
+    static Options getCommandLineOptions() {
         Options options = new Options();
 
         Option help = new Option("h", "help", false, "print this message");
@@ -449,7 +674,7 @@ public class ExcelIO {
         //		with two correct arguments -cm functions correct
         //		with the excel source location missing, it does not generate json target file
         // 		with the json target file name missing, it does print json content instead of creating a file
-        Option convertMargins = new Option("cm", "convertMargins", true, "convert margins from Excel source file to JSON target file, uses only the first optimization entry \n" + 
+        Option convertMargins = new Option("cm", "convertMargins", true, "convert margins from Excel source file to JSON target file, one list of flights per optimization entry \n" + 
         																 "- first argument is Excel source location (required for functionality) " + 
         																 "\n - second argument is JSON target file name (if not given the result is printed to the console) \n");   
         convertMargins.setArgs(Option.UNLIMITED_VALUES);
@@ -459,7 +684,7 @@ public class ExcelIO {
         //		with two correct arguments -cmw functions correct
         //		with the excel source location missing, it does not generate json target file and excel target file
         // 		with the json target file name missing, it does print json content instead of creating a file and generate excel target file
-        Option convertMarginsWrite = new Option("cmw", "convertMarginsWriteWeight", true, "convert margins from Excel source file to JSON string and writes weights to new Excel file, uses only the first optimization entry \n" + 
+        Option convertMarginsWrite = new Option("cmw", "convertMarginsWriteWeight", true, "convert margins from Excel source file to JSON string and writes weights to new Excel file (one per optimization entry) \n" + 
 				 "- first argument is Excel source location (required for functionality) " + 
 				 "\n - second argument is JSON target file name (if not given the result is printed to the console) \n");   
         convertMarginsWrite.setArgs(Option.UNLIMITED_VALUES);
@@ -517,6 +742,66 @@ public class ExcelIO {
         includeMargins.setOptionalArg(true);
         options.addOption(includeMargins);
         
+        // -matrix
+        //		without arguments
+        //		works with -cmw/-cmwetj (e.g. -cmwetj <args> -matrix)
+        //		writes the weight maps of all flights to one sheet 'WeightMatrix' instead of one sheet per flight
+        Option weightMatrix = new Option("matrix", "weightMatrix", false, "write weight maps (for -cmw, -cmwetj) to one sheet 'WeightMatrix' \n" +
+        		"(slots as columns, one row per flight) instead of one sheet per flight (does not need arguments)");
+        options.addOption(weightMatrix);
+        
+        // -rowWindow
+        //		needs one argument:
+        //		rows: number of rows per sheet kept in memory
+        //		works with -cmw/-cmwetj (e.g. -cmwetj <args> -rowWindow 100)
+        //		writes excel files in streaming mode (older rows are flushed to temporary files),
+        //		always with the layout of -matrix: every sheet keeps a temporary file open until the workbook is written,
+        //		therefore one sheet per flight would run out of file handles and memory for large sessions;
+        //		optimizations with more than 16383 slots (columns of a sheet) are not written in streaming mode
+        Option rowWindow = new Option("rowWindow", "rowWindow", true, "write excel files (for -cmw, -cmwetj) in streaming mode, which keeps \n" +
+        		"only the given number of rows per sheet in memory (implies -matrix, one sheet per flight is not \n" +
+        		"written in streaming mode, optimizations with more than 16383 slots are not written) \n" +
+        		"- first argument is the number of rows (required)");
+        options.addOption(rowWindow);
+        
+        // -threads
+        //		optional argument:
+        //		threads: number of threads (if not given, all available processors are used)
+        //		works with -cm/-cmw/-cmtj/-cmwetj/-tdg (e.g. -cmwetj <args> -threads 8)
+        //		generates the weight maps of the flights in parallel (-tdg: writes the generated files in parallel)
+        Option threads = new Option("threads", "threads", true, "generate weight maps (for -cm, -cmw, -cmtj, -cmwetj) or write files (for -tdg) in parallel \n" +
+        		"- first argument is the number of threads (optional, all available processors are used if not given)");
+        threads.setOptionalArg(true);
+        options.addOption(threads);
+        
+        // -compact
+        //		without arguments
+        //		works with -cm/-cmw/-ctj/-cmtj/-cmwetj (e.g. -cmtj <args> -compact)
+        //		writes the generated JSON files without whitespace (instead of pretty printed)
+        Option compact = new Option("compact", "compactJson", false, "write generated JSON files (for -cm, -cmw, -ctj, -cmtj, -cmwetj) without whitespace \n" +
+        		"(does not need arguments)");
+        options.addOption(compact);
+        
+        // -sparse
+        //		without arguments
+        //		works with -ctj/-cmtj/-cmwetj (e.g. -cmtj <args> -sparse)
+        //		writes the weight maps of the generated files run-length encoded (runs of equal weights with count and weight,
+        //		other weights one by one) instead of one weight per slot, the Optimizer must be able to read this format;
+        //		weight maps, which are not smaller encoded, are still written with one weight per slot
+        Option sparse = new Option("sparse", "sparseWeightMaps", false, "write the weight maps of generated files (for -ctj, -cmtj, -cmwetj) run-length \n" +
+        		"encoded instead of one weight per slot, if the encoded weight map is smaller (does not need arguments)");
+        options.addOption(sparse);
+        
+        // -smile
+        //		without arguments
+        //		works with -cm/-cmw/-ctj/-cmtj/-cmwetj/-tdg (e.g. -cmtj <args> -smile)
+        //		writes the generated files with the binary Smile format (extension '.smile') instead of JSON,
+        //		files with the extension '.smile' are always written/read with Smile
+        //		(JSON and Smile files with the additional extension '.gz' or '.zst', e.g. 'target.json.gz', are compressed)
+        Option smile = new Option("smile", "smile", false, "write generated files (for -cm, -cmw, -ctj, -cmtj, -cmwetj, -tdg) with the binary \n" +
+        		"Smile format and extension '.smile' instead of JSON (does not need arguments)");
+        options.addOption(smile);
+        
         // -tdg
         //		needs one argument:
         //		filesName/Location: the JSON file name with the test data generator configuration and at the same folder level the 
@@ -527,6 +812,50 @@ public class ExcelIO {
         includeMargins.setArgs(1);
         options.addOption(testDataGenerator);
         
+        // -batch
+        //		with one to three arguments:
+        //		source: directory with excel source files or glob pattern (e.g. 'data/*.xlsx')
+        //		targetDirectory: directory of the generated files and of batch-report.json (optional, directory of each source file
+        //			and batch-report.json in the common directory of the source files),
+        //			must not be a file or end with .xlsx (glob patterns have to be quoted, otherwise the shell expands them)
+        //		extension: extension of the generated files, e.g. '.json.gz' (optional, '.json')
+        //		works with -margins/-compact/-smile/-threads (number of files converted in parallel)
+        Option batch = new Option("batch", "batch", true, "generate JSON files for optimizer (as -cmtj) for all Excel source files \n" +
+        		"- first argument is the directory of the Excel source files or a quoted glob pattern, e.g. 'data/*.xlsx' (required) \n" +
+        		"- second argument is the target directory of the generated files and of batch-report.json (optional, if \n" +
+        		"not given, the files are written to the directory of each source file and batch-report.json to the \n" +
+        		"common directory of the source files) \n" +
+        		"- third argument is the extension of the generated files, e.g. '.json.gz' (optional, '.json' if not given)");
+        batch.setArgs(Option.UNLIMITED_VALUES);
+        options.addOption(batch);
+        
+        // -serve
+        //		optional argument:
+        //		port: port of the HTTP server on localhost (if not given, port 8080 is used)
+        //		keeps the JVM running and executes -cmwetj/-cmtj/-wr/-tdg commands of HTTP requests, 
+        //		works with -threads (number of requests executed in parallel)
+        //		requests need the token printed at startup, requests of web pages (Origin header, other Host) are rejected
+        Option serve = new Option("serve", "serve", true, "start HTTP server on localhost, which executes the commands -cmwetj, -cmtj, -wr and -tdg \n" +
+        		"(POST /run with the command line arguments as JSON array, e.g. [\"-cmtj\", \"in.xlsx\", \"out.json\"]), \n" +
+        		"other options allowed in requests are -margins, -compact, -smile, -sparse, -matrix, -rowWindow, -threads; \n" +
+        		"requests need Content-Type application/json and the header 'Authorization: Bearer <token>' with the token \n" +
+        		"printed at startup \n" +
+        		"- first argument is the port (optional, 8080 if not given)");
+        serve.setOptionalArg(true);
+        options.addOption(serve);
+        
+        // -metrics
+        //		optional argument:
+        //		metricsFile: JSON file for the metrics (if not given, only the summary table is printed)
+        //		works with all commands except -serve (e.g. -cmwetj <args> -metrics metrics.json)
+        //		records wall time, CPU time and allocated bytes of reading Excel files, generating weight maps,
+        //		writing Excel files and writing JSON files and prints a summary table (System.err)
+        Option metrics = new Option("metrics", "metrics", true, "print wall time, CPU time and allocated bytes of each phase (Excel read, weight \n" +
+        		"generation, Excel write, JSON write) after the command \n" +
+        		"- first argument is the JSON file for the metrics (optional, only the summary table is printed if not given)");
+        metrics.setOptionalArg(true);
+        options.addOption(metrics);
+        
         // -costf
         //		needs one argument:
         //		costfunction: 'linearSteps' - linear cost function with steps; TODO add other cost function
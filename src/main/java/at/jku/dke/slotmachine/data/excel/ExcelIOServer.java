@@ -0,0 +1,253 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.ParseException;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Property;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * HTTP server (only on localhost) for option -serve, which executes the commands -cmwetj, -cmtj, -wr and -tdg
+ * in the same JVM, so that JVM startup and class loading (POI, Jackson) are paid only once. The command line
+ * arguments are sent as JSON array with POST /run, e.g. ["-cmtj", "in.xlsx", "out.json", "-margins"]; relative file
+ * names are resolved against the working directory of the server. The requests are executed in parallel by a
+ * fixed number of threads. The response contains the execution time of the request:
+ * {"status":"OK","command":"cmtj","millis":123}. The commands log errors while reading/writing files instead of
+ * throwing them, therefore the errors logged during a request (also by the threads of -threads) are counted and
+ * a request with errors is answered with status 500 (see the server log for the errors). Besides the command,
+ * only the options -margins, -compact, -smile, -sparse, -matrix, -rowWindow and -threads are allowed (e.g. option
+ * -metrics is not supported, because the requests are executed in parallel).
+ * Because web pages in a browser can send requests to localhost, the server executes only requests with
+ * Content-Type application/json, with the Host localhost/127.0.0.1/[::1] and the port of the server, without an
+ * Origin header and with the token printed at startup (header 'Authorization: Bearer &lt;token&gt;').
+ */
+public class ExcelIOServer {
+    private static final Logger logger = LogManager.getLogger();
+
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * commands, which can be executed by the server (one per request)
+     */
+    private static final Set<String> COMMANDS = Set.of("cmwetj", "cmtj", "wr", "tdg");
+    /**
+     * options, which modify the command of a request (all other options are not allowed in requests)
+     */
+    private static final Set<String> MODIFIER_OPTIONS = Set.of("margins", "compact", "smile", "sparse", "matrix",
+            "rowWindow", "threads");
+
+    /**
+     * errors logged by the current request, inherited by the threads started while the request is executed
+     */
+    private static final InheritableThreadLocal<AtomicInteger> requestErrors = new InheritableThreadLocal<AtomicInteger>();
+
+    /**
+     * Starts the server, the JVM keeps running until the server is stopped.
+     * @param port port on localhost
+     * @param threads number of requests executed in parallel (0 or less uses all available processors)
+     * @return started server, or null if the server cannot be started (e.g. port is used)
+     */
+    public static HttpServer serve(int port, int threads) {
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        ErrorCountingAppender.register();
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            byte[] tokenBytes = new byte[16];
+            new SecureRandom().nextBytes(tokenBytes);
+            StringBuilder token = new StringBuilder();
+            for (byte b: tokenBytes) {
+                token.append(String.format("%02x", b));
+            }
+            int boundPort = server.getAddress().getPort();
+            server.createContext("/run", exchange -> handleRun(exchange, token.toString(), boundPort));
+            server.setExecutor(Executors.newFixedThreadPool(threads));
+            server.start();
+            logger.info("Server is listening on " + server.getAddress() + " with " + threads + " threads.");
+            logger.info("Requests need the header 'Authorization: Bearer " + token + "'.");
+            return server;
+        } catch (IOException e) {
+            logger.error("Could not start server on port " + port + ".", e);
+            return null;
+        }
+    }
+
+    private static void handleRun(HttpExchange exchange, String token, int port) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                sendResponse(exchange, 405, "ERROR", null, "Only POST is supported.", -1);
+                return;
+            }
+            // requests of web pages (cross-site requests, DNS rebinding) must not be executed
+            String host = exchange.getRequestHeaders().getFirst("Host");
+            if (exchange.getRequestHeaders().containsKey("Origin") || host == null || 
+                    !Set.of("localhost:" + port, "127.0.0.1:" + port, "[::1]:" + port).contains(host.toLowerCase())) {
+                sendResponse(exchange, 403, "ERROR", null, "Only requests to localhost without Origin are supported.", -1);
+                return;
+            }
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authorization == null || !MessageDigest.isEqual(authorization.getBytes(StandardCharsets.UTF_8), 
+                    ("Bearer " + token).getBytes(StandardCharsets.UTF_8))) {
+                sendResponse(exchange, 403, "ERROR", null, "Header 'Authorization: Bearer <token>' with the token " + 
+                        "printed at startup is required.", -1);
+                return;
+            }
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (contentType == null || !contentType.toLowerCase().startsWith("application/json")) {
+                sendResponse(exchange, 415, "ERROR", null, "Content-Type must be application/json.", -1);
+                return;
+            }
+            String[] args;
+            try (InputStream in = exchange.getRequestBody()) {
+                args = JsonMappers.getReader(String[].class).readValue(in);
+            } catch (IOException e) {
+                sendResponse(exchange, 400, "ERROR", null, "Body must be a JSON array of command line arguments.", -1);
+                return;
+            }
+
+            String command;
+            try {
+                command = getCommand(args);
+            } catch (ParseException e) {
+                sendResponse(exchange, 400, "ERROR", null, e.getMessage(), -1);
+                return;
+            }
+
+            logger.info("Request " + Arrays.toString(args) + " started.");
+            long start = System.nanoTime();
+            AtomicInteger errors = new AtomicInteger();
+            requestErrors.set(errors);
+            try {
+                ExcelIO.run(args);
+            } catch (RuntimeException e) {
+                long millis = (System.nanoTime() - start) / 1000000;
+                logger.error("Request " + Arrays.toString(args) + " failed after " + millis + " ms.", e);
+                sendResponse(exchange, 500, "ERROR", command, String.valueOf(e.getMessage()), millis);
+                return;
+            } finally {
+                requestErrors.remove();
+            }
+            long millis = (System.nanoTime() - start) / 1000000;
+            if (errors.get() > 0) {
+                logger.info("Request " + Arrays.toString(args) + " finished with " + errors.get() + " errors in " + 
+                        millis + " ms.");
+                sendResponse(exchange, 500, "ERROR", command, errors.get() + " errors logged, see the server log.", millis);
+                return;
+            }
+            logger.info("Request " + Arrays.toString(args) + " finished in " + millis + " ms.");
+            sendResponse(exchange, 200, "OK", command, null, millis);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @param args command line arguments of a request
+     * @return command of the request (cmwetj, cmtj, wr or tdg)
+     * @throws ParseException if the arguments cannot be parsed or do not contain exactly one supported command
+     */
+    private static String getCommand(String[] args) throws ParseException {
+        if (args == null) {
+            throw new ParseException("No command line arguments given.");
+        }
+        CommandLine line = new DefaultParser().parse(ExcelIO.getCommandLineOptions(), args);
+        String command = null;
+        for (Option option: line.getOptions()) {
+            if (!COMMANDS.contains(option.getOpt()) && !MODIFIER_OPTIONS.contains(option.getOpt())) {
+                throw new ParseException("Option -" + option.getOpt() + " is not supported by the server.");
+            }
+            if (COMMANDS.contains(option.getOpt())) {
+                if (command != null && !command.equals(option.getOpt())) {
+                    throw new ParseException("Only one command per request is supported.");
+                }
+                command = option.getOpt();
+            }
+        }
+        if (command == null) {
+            throw new ParseException("No command given (supported are -cmwetj, -cmtj, -wr and -tdg).");
+        }
+        return command;
+    }
+
+    /**
+     * Counts the errors logged while a request is executed (requests without errors do not count).
+     */
+    private static class ErrorCountingAppender extends AbstractAppender {
+        private static final String NAME = "ExcelIOServerErrors";
+
+        private ErrorCountingAppender() {
+            super(NAME, null, null, true, Property.EMPTY_ARRAY);
+        }
+
+        /**
+         * Adds the appender (level ERROR) to the root logger, if it was not added before.
+         */
+        private static synchronized void register() {
+            LoggerContext context = (LoggerContext) LogManager.getContext(false);
+            Configuration config = context.getConfiguration();
+            if (config.getRootLogger().getAppenders().containsKey(NAME)) {
+                return;
+            }
+            ErrorCountingAppender appender = new ErrorCountingAppender();
+            appender.start();
+            config.addAppender(appender);
+            config.getRootLogger().addAppender(appender, Level.ERROR, null);
+            context.updateLoggers();
+        }
+
+        @Override
+        public void append(LogEvent event) {
+            AtomicInteger errors = requestErrors.get();
+            if (errors != null) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    private static void sendResponse(HttpExchange exchange, int status, String result, String command, String message,
+            long millis) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<String, Object>();
+        body.put("status", result);
+        if (command != null) {
+            body.put("command", command);
+        }
+        if (message != null) {
+            body.put("message", message);
+        }
+        if (millis >= 0) {
+            body.put("millis", millis);
+        }
+        byte[] bytes = JsonMappers.getCompactWriter(Map.class).writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
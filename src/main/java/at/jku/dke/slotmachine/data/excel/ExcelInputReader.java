@@ -2,9 +2,7 @@ package at.jku.dke.slotmachine.data.excel;
 
 import org.apache.poi.ss.usermodel.*;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -17,6 +15,8 @@ import java.util.TimeZone;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import at.jku.dke.slotmachine.data.excel.jfr.ExcelSheetParseEvent;
+
 public class ExcelInputReader {
     private static final Logger logger = LogManager.getLogger();
 
@@ -27,51 +27,71 @@ public class ExcelInputReader {
      * @return a list of margins
      */
     public static List<MarginEntry> readMarginsFromFile(String fileName) {
-        List<MarginEntry> entryList = new LinkedList<MarginEntry>();
-
-        try (InputStream input = new FileInputStream(fileName)) {
-            logger.info("Reading sheet 'Flights' from Excel file '" + fileName + "'.");
-            logger.info("Reading margins from the file.");
-
-            Workbook wb = WorkbookFactory.create(input);
-
-            Sheet sheetFlights = wb.getSheet("Flights");
-
-            int rowNum = 1; //information is in row 1 (second row) and below
-            boolean eof = false;
-
-            while (!eof) {
-                Row row = sheetFlights.getRow(rowNum);
-
-                if (row != null && row.getCell(0) != null){
-                    Cell flightId = row.getCell(0);
-                    Cell scheduledTime = row.getCell(1);
-                    Cell timeNotBefore = row.getCell(2);
-                    Cell timeWished = row.getCell(3);
-                    Cell timeNotAfter = row.getCell(4);
-                    Cell priority = row.getCell(5);
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(fileName)) {
+            return readMarginsFromFile(session);
+        }
+    }
 
-                    MarginEntry entry = new MarginEntry(
-                        flightId.getStringCellValue(),
-                        // set seconds and nanoseconds to zero (Excel sometimes adds small values to dates)
-                        scheduledTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
-                        timeNotBefore.getLocalDateTimeCellValue().withSecond(0).withNano(0),
-                        timeWished.getLocalDateTimeCellValue().withSecond(0).withNano(0),
-                        timeNotAfter.getLocalDateTimeCellValue().withSecond(0).withNano(0),
-                        priority.getNumericCellValue()
-                    );
+    /**
+     * Read Margins from the Excel file of the session and return them as a list of margins.
+     *
+     * @param session opened Excel input file
+     * @return a list of margins
+     */
+    public static List<MarginEntry> readMarginsFromFile(ExcelWorkbookSession session) {
+        return session.getMargins();
+    }
 
-                    entryList.add(entry);
+    /**
+     * Read Margins from sheet 'Flights' of a parsed workbook.
+     *
+     * @param wb parsed workbook
+     * @param fileName name of the file of the workbook (for the JFR event)
+     * @return a list of margins
+     */
+    static List<MarginEntry> readMargins(Workbook wb, String fileName) {
+        List<MarginEntry> entryList = new LinkedList<MarginEntry>();
 
-                    rowNum++;
-                } else {
-                    eof = true;
-                }
+        logger.info("Reading sheet 'Flights' from Excel workbook.");
+        logger.info("Reading margins from the file.");
+
+        ExcelSheetParseEvent event = new ExcelSheetParseEvent();
+        event.begin();
+        Sheet sheetFlights = wb.getSheet("Flights");
+
+        int rowNum = 1; //information is in row 1 (second row) and below
+        boolean eof = false;
+
+        while (!eof) {
+            Row row = sheetFlights.getRow(rowNum);
+
+            if (row != null && row.getCell(0) != null){
+                Cell flightId = row.getCell(0);
+                Cell scheduledTime = row.getCell(1);
+                Cell timeNotBefore = row.getCell(2);
+                Cell timeWished = row.getCell(3);
+                Cell timeNotAfter = row.getCell(4);
+                Cell priority = row.getCell(5);
+
+                MarginEntry entry = new MarginEntry(
+                    flightId.getStringCellValue(),
+                    // set seconds and nanoseconds to zero (Excel sometimes adds small values to dates)
+                    scheduledTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
+                    timeNotBefore.getLocalDateTimeCellValue().withSecond(0).withNano(0),
+                    timeWished.getLocalDateTimeCellValue().withSecond(0).withNano(0),
+                    timeNotAfter.getLocalDateTimeCellValue().withSecond(0).withNano(0),
+                    priority.getNumericCellValue()
+                );
+
+                entryList.add(entry);
+
+                rowNum++;
+            } else {
+                eof = true;
             }
-        } catch (IOException e) {
-            logger.error("Could not read Excel file.", e);
         }
 
+        commitSheetParseEvent(event, fileName, "Flights", null, entryList.size() + 1, 0);
         return entryList;
     }
 
@@ -82,66 +102,102 @@ public class ExcelInputReader {
      * @return list of optimizations
      */
     public static List<OptimizationEntry> readOptimizationsFromFile(String fileName) {
-        List<OptimizationEntry> entryList = new LinkedList<OptimizationEntry>();
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(fileName)) {
+            return readOptimizationsFromFile(session);
+        }
+    }
 
-        try (InputStream input = new FileInputStream(fileName)) {
-            logger.info("Reading sheet 'Optimizations' from Excel file '" + fileName + "'.");
-            logger.info("Reading optimizations from the excel source file.");
+    /**
+     * Read Optimizations from the excel source file of the session (without weight maps).
+     * 
+     * @param session opened excel source file
+     * @return list of optimizations
+     */
+    public static List<OptimizationEntry> readOptimizationsFromFile(ExcelWorkbookSession session) {
+        return session.getOptimizations();
+    }
 
-            Workbook wb = WorkbookFactory.create(input);
+    /**
+     * Read Optimizations from sheet 'Optimizations' of a parsed workbook.
+     * 
+     * @param wb parsed workbook
+     * @param fileName name of the file of the workbook (for the JFR event)
+     * @return list of optimizations
+     */
+    static List<OptimizationEntry> readOptimizations(Workbook wb, String fileName) {
+        List<OptimizationEntry> entryList = new LinkedList<OptimizationEntry>();
 
-            Sheet sheetOptimizations = wb.getSheet("Optimizations");
+        logger.info("Reading sheet 'Optimizations' from Excel workbook.");
+        logger.info("Reading optimizations from the excel source file.");
 
-            int rowNum = 1; //information is in row 1 (second row) and below
-            boolean eof = false;
+        ExcelSheetParseEvent event = new ExcelSheetParseEvent();
+        event.begin();
+        Sheet sheetOptimizations = wb.getSheet("Optimizations");
 
-            while (!eof) {
-                Row row = sheetOptimizations.getRow(rowNum);
-
-                if (row != null ) {
-                    Cell optId = row.getCell(0);
-                    Cell startTime = row.getCell(1);
-                    Cell endTime = row.getCell(2);
-                    Cell interval = row.getCell(3);
-                    Cell framework = row.getCell(4);
-                    String frameworkString = "null";
-                    if (framework != null) {
-                    	frameworkString = framework.getStringCellValue();
-                    }
-                    Cell minValue = row.getCell(5);
-                    Cell maxValue = row.getCell(6);
-                    Cell dropValue = row.getCell(7);
-                    
-                    OptimizationEntry entry = new OptimizationEntry(
-                        optId.getStringCellValue(),
-                        startTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
-                        endTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
-                        (int) interval.getNumericCellValue(),
-                        frameworkString,
-                        minValue.getNumericCellValue(),
-                        maxValue.getNumericCellValue(),
-                        dropValue.getNumericCellValue()
-                    );
+        int rowNum = 1; //information is in row 1 (second row) and below
+        boolean eof = false;
 
-                    logger.info("OptimizationEntry: " + entry.getOptId() + "\n \t starttime: " + 
-                    		entry.getStartTime() + " \t endtime: " + entry.getEndTime() + 
-                    		"\n \t interval: " + entry.getInterval() + " \t framework: " + entry.getOptimizationFramework() +
-                    		"\n \t minValue: " + entry.getMinValue() + " \t maxValue: " + entry.getMaxValue());
-                    
-                    entryList.add(entry);
+        while (!eof) {
+            Row row = sheetOptimizations.getRow(rowNum);
 
-                    rowNum++;
-                } else {
-                    eof = true;
+            if (row != null ) {
+                Cell optId = row.getCell(0);
+                Cell startTime = row.getCell(1);
+                Cell endTime = row.getCell(2);
+                Cell interval = row.getCell(3);
+                Cell framework = row.getCell(4);
+                String frameworkString = "null";
+                if (framework != null) {
+                	frameworkString = framework.getStringCellValue();
                 }
+                Cell minValue = row.getCell(5);
+                Cell maxValue = row.getCell(6);
+                Cell dropValue = row.getCell(7);
+                
+                OptimizationEntry entry = new OptimizationEntry(
+                    optId.getStringCellValue(),
+                    startTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
+                    endTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
+                    (int) interval.getNumericCellValue(),
+                    frameworkString,
+                    minValue.getNumericCellValue(),
+                    maxValue.getNumericCellValue(),
+                    dropValue.getNumericCellValue()
+                );
+
+                logger.info("OptimizationEntry: " + entry.getOptId() + "\n \t starttime: " + 
+                		entry.getStartTime() + " \t endtime: " + entry.getEndTime() + 
+                		"\n \t interval: " + entry.getInterval() + " \t framework: " + entry.getOptimizationFramework() +
+                		"\n \t minValue: " + entry.getMinValue() + " \t maxValue: " + entry.getMaxValue());
+                
+                entryList.add(entry);
+
+                rowNum++;
+            } else {
+                eof = true;
             }
-        } catch (IOException e) {
-            logger.error("Could not read Excel file.", e);
         }
 
+        commitSheetParseEvent(event, fileName, "Optimizations", null, entryList.size() + 1, 0);
         return entryList;
     }
 
+    /**
+     * Commits the event of a parsed sheet (only if JFR records the event), rows include the header row.
+     */
+    private static void commitSheetParseEvent(ExcelSheetParseEvent event, String fileName, String sheetName,
+            String flightId, int rows, int slotCount) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.fileName = fileName;
+            event.sheetName = sheetName;
+            event.flightId = flightId;
+            event.rows = rows;
+            event.slotCount = slotCount;
+            event.commit();
+        }
+    }
+
     /**
      * Check if the file at given fileName is excel source or excel target file. The 
      * checked difference is if the target file contains a weight map at the second sheet
@@ -151,16 +207,31 @@ public class ExcelInputReader {
      * @return true if file is excel target file, otherwise false
      */
 	public static boolean isTargetFile(String fileName) {
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(fileName)) {
+        	return isTargetFile(session);
+        }
+	}
+
+    /**
+     * Check if the file of the session is excel source or excel target file (see isTargetFile(String)).
+     * 
+     * @param session opened excel file
+     * @return true if file is excel target file, otherwise false
+     */
+	public static boolean isTargetFile(ExcelWorkbookSession session) {
 		// return true if file is source file or return false if file is target file 
 		// (target file contains 'weight'-Maps and therefore first row second sheet is 'Slot | Weight' -> false)
 		// default is to return true
-        try (InputStream input = new FileInputStream(fileName)) {
-            logger.info("Reading sheet 'Optimizations' from Excel file '" + fileName + "' to check if file is Excel Source or Target file.");
+        try {
+            logger.info("Reading sheet 'Optimizations' from Excel file '" + session.getFileName() + "' to check if file is Excel Source or Target file.");
 
-            Workbook wb = WorkbookFactory.create(input);
+            Workbook wb = session.getWorkbook();
             
             try {
 	            Sheet weightMap = wb.getSheetAt(1);
+	            if (weightMap.getSheetName().equals(WeightMapLayout.MATRIX_SHEET_NAME)) {
+	            	return true;
+	            }
 	            if (weightMap.getRow(0).getCell(0).getStringCellValue().equals("Slot") && 
 	            		weightMap.getRow(0).getCell(1).getStringCellValue().equals("Weight")) {
 	            	return true;
@@ -183,63 +254,83 @@ public class ExcelInputReader {
      * @return optimization
      */
 	public static OptimizationEntry readOptimizationFromTargetFile(String fileName) {
-		OptimizationEntry entry = null;
-        try (InputStream input = new FileInputStream(fileName)) {
-            logger.info("Reading sheet 'Optimizations' from Excel file '" + fileName + "'.");
-            logger.info("Reading optimization from the excel target file.");
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(fileName)) {
+        	return readOptimizationFromTargetFile(session);
+        }
+	}
 
-            Workbook wb = WorkbookFactory.create(input);
+    /**
+     * Read Optimization from the excel target file of the session (with weight maps).
+     * 
+     * @param session opened excel target file
+     * @return optimization
+     */
+	@SuppressWarnings("try")
+	public static OptimizationEntry readOptimizationFromTargetFile(ExcelWorkbookSession session) {
+        try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.EXCEL_READ)) {
+            logger.info("Reading sheet 'Optimizations' from Excel file '" + session.getFileName() + "'.");
+            return session.getTargetOptimization();
+        } catch (IOException e) {
+            logger.error("Could not read Excel file.", e);
+            return null;
+        }
+	}
 
-            Sheet sheetOptimizations = wb.getSheet("Flights");
+    /**
+     * Read Optimization from sheet 'Flights' of a parsed excel target file (with weight maps).
+     * 
+     * @param wb parsed workbook
+     * @return optimization
+     */
+	static OptimizationEntry readOptimizationFromTargetFile(Workbook wb) {
+        logger.info("Reading optimization from the excel target file.");
 
-            Row row = sheetOptimizations.getRow(0);
+        Sheet sheetOptimizations = wb.getSheet("Flights");
 
-            Cell optId = row.getCell(8);
-            
-            row = sheetOptimizations.getRow(2);
-            Cell startTime = row.getCell(8);
-            
-            row = sheetOptimizations.getRow(3);
-            Cell endTime = row.getCell(8);
-            
-            row = sheetOptimizations.getRow(4);
-            Cell interval = row.getCell(8);
-            
-            row = sheetOptimizations.getRow(1);
-            Cell framework = row.getCell(8);
-            String frameworkString = "null";
-            if (framework != null) {
-            	frameworkString = framework.getStringCellValue();
-            }
-            
-            row = sheetOptimizations.getRow(5);
-            Cell minValue = row.getCell(8);
-            
-            row = sheetOptimizations.getRow(6);
-            Cell maxValue = row.getCell(8);
-            
-            row = sheetOptimizations.getRow(7);
-            Cell dropValue = row.getCell(8);
-            
-            entry = new OptimizationEntry(
-                optId.getStringCellValue(),
-                startTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
-                endTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
-                (int) interval.getNumericCellValue(),
-                frameworkString,
-                minValue.getNumericCellValue(),
-                maxValue.getNumericCellValue(),
-                dropValue.getNumericCellValue()
-            );
-
-            logger.info("OptimizationEntry: " + entry.getOptId() + "\n \t starttime: " + 
-            		entry.getStartTime() + " \t endtime: " + entry.getEndTime() + 
-            		"\n \t interval: " + entry.getInterval() + " \t framework: " + entry.getOptimizationFramework() +
-            		"\n \t minValue: " + entry.getMinValue() + " \t maxValue: " + entry.getMaxValue());
+        Row row = sheetOptimizations.getRow(0);
 
-        } catch (IOException e) {
-            logger.error("Could not read Excel file.", e);
+        Cell optId = row.getCell(8);
+        
+        row = sheetOptimizations.getRow(2);
+        Cell startTime = row.getCell(8);
+        
+        row = sheetOptimizations.getRow(3);
+        Cell endTime = row.getCell(8);
+        
+        row = sheetOptimizations.getRow(4);
+        Cell interval = row.getCell(8);
+        
+        row = sheetOptimizations.getRow(1);
+        Cell framework = row.getCell(8);
+        String frameworkString = "null";
+        if (framework != null) {
+        	frameworkString = framework.getStringCellValue();
         }
+        
+        row = sheetOptimizations.getRow(5);
+        Cell minValue = row.getCell(8);
+        
+        row = sheetOptimizations.getRow(6);
+        Cell maxValue = row.getCell(8);
+        
+        row = sheetOptimizations.getRow(7);
+        Cell dropValue = row.getCell(8);
+        
+        OptimizationEntry entry = new OptimizationEntry(
+            optId.getStringCellValue(),
+            startTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
+            endTime.getLocalDateTimeCellValue().withSecond(0).withNano(0),
+            (int) interval.getNumericCellValue(),
+            frameworkString,
+            minValue.getNumericCellValue(),
+            maxValue.getNumericCellValue(),
+            dropValue.getNumericCellValue()
+        );
+
+        logger.info("OptimizationEntry: " + entry.getOptId() + "\n \t starttime: " + 
+        		entry.getStartTime() + " \t endtime: " + entry.getEndTime() + 
+        		"\n \t interval: " + entry.getInterval() + " \t framework: " + entry.getOptimizationFramework() +
+        		"\n \t minValue: " + entry.getMinValue() + " \t maxValue: " + entry.getMaxValue());
 
         return entry;
 	}
@@ -251,11 +342,34 @@ public class ExcelInputReader {
 	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
 	 */
 	public static OptimizationSessionEntry convertToOptimizationSessionEntry(String fileName) {
-        try (InputStream input = new FileInputStream(fileName)) {
-            logger.info("Reading from Excel file '" + fileName + "'.");
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(fileName)) {
+        	return convertToOptimizationSessionEntry(session);
+        }
+	}
+
+	/**
+	 * Converts the excel file of the session which has to be in format as the files are, when weight maps
+	 * have been written to them (as the output of writeWeightsToFile is).
+	 * @param session opened Excel file
+	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
+	 */
+	@SuppressWarnings("try")
+	public static OptimizationSessionEntry convertToOptimizationSessionEntry(ExcelWorkbookSession session) {
+        try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.EXCEL_READ)) {
+            logger.info("Reading from Excel file '" + session.getFileName() + "'.");
             logger.info("Read data from file to create OptimizationSessionEntry object from excel target file.");
 
-            Workbook wb = WorkbookFactory.create(input);
+            // weight maps in layout MATRIX are read without parsing the whole workbook
+            if (!session.isWorkbookLoaded() && 
+            		ExcelStreamingReader.hasSheet(session.getFileName(), WeightMapLayout.MATRIX_SHEET_NAME)) {
+            	return convertMatrixToOptimizationSessionEntry(session.getFileName());
+            }
+            
+            Workbook wb = session.getWorkbook();
+            
+            if (wb.getSheet(WeightMapLayout.MATRIX_SHEET_NAME) != null) {
+            	return convertMatrixToOptimizationSessionEntry(wb, session.getFileName());
+            }
             
             String optId = wb.getSheet("Flights").getRow(0).getCell(8).getStringCellValue();
             String framework = null;
@@ -328,10 +442,13 @@ public class ExcelInputReader {
 						.getLocalDateTimeCellValue()
 						.atZone(ZoneId.of("Europe/Vienna"))
 						.toInstant();
+				ExcelSheetParseEvent event = new ExcelSheetParseEvent();
+				event.begin();
 				int[] weightMap = new int[slotInfos.length];
 				for (int j = 0; j < weightMap.length; j++) {
 					weightMap[j] = (int) wb.getSheet(flightId).getRow(j+1).getCell(1).getNumericCellValue();
 				}
+				commitSheetParseEvent(event, session.getFileName(), flightId, flightId, weightMap.length + 1, weightMap.length);
 				flights[i] = new Flight(flightId, scheduledTime, weightMap);
 				i++;
 			}
@@ -351,6 +468,131 @@ public class ExcelInputReader {
         }
 	}
 
+	/**
+	 * Converts a parsed excel target file with weight maps in layout MATRIX (sheet 'WeightMatrix').
+	 * @param wb parsed workbook
+	 * @param fileName name of the file of the workbook (for the JFR event)
+	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
+	 */
+	private static OptimizationSessionEntry convertMatrixToOptimizationSessionEntry(Workbook wb, String fileName) {
+		Sheet sheetFlights = wb.getSheet("Flights");
+		String optId = sheetFlights.getRow(0).getCell(8).getStringCellValue();
+		String framework = null;
+		if (sheetFlights.getRow(1) != null && sheetFlights.getRow(1).getCell(8) != null) {
+			framework = sheetFlights.getRow(1).getCell(8).getStringCellValue();
+		}
+		
+		// flightIds and scheduled times (rows 1 and below of sheet 'Flights')
+		Map<String, Instant> scheduledTimes = new LinkedHashMap<String, Instant>();
+		int pos = 1;
+		while (sheetFlights.getRow(pos) != null && sheetFlights.getRow(pos).getCell(0) != null &&
+				!sheetFlights.getRow(pos).getCell(0).getStringCellValue().equals("")) {
+			Row currentRow = sheetFlights.getRow(pos);
+			scheduledTimes.put(currentRow.getCell(0).getStringCellValue(), currentRow.getCell(1)
+					.getLocalDateTimeCellValue().atZone(ZoneId.of("Europe/Vienna")).toInstant());
+			pos++;
+		}
+		
+		// slots (header row) and weight maps (one row per flight) of sheet 'WeightMatrix'
+		ExcelSheetParseEvent event = new ExcelSheetParseEvent();
+		event.begin();
+		Sheet sheetMatrix = wb.getSheet(WeightMapLayout.MATRIX_SHEET_NAME);
+		Row headerRow = sheetMatrix.getRow(0);
+		List<SlotInfo> slots = new LinkedList<SlotInfo>();
+		for (int j = 1; j < headerRow.getLastCellNum() && headerRow.getCell(j) != null; j++) {
+			slots.add(new SlotInfo(headerRow.getCell(j).getLocalDateTimeCellValue()
+					.atZone(ZoneId.of("Europe/Vienna")).toInstant()));
+		}
+		Map<String, int[]> weightMaps = new LinkedHashMap<String, int[]>();
+		pos = 1;
+		while (sheetMatrix.getRow(pos) != null && sheetMatrix.getRow(pos).getCell(0) != null) {
+			Row currentRow = sheetMatrix.getRow(pos);
+			int[] weightMap = new int[slots.size()];
+			for (int j = 0; j < weightMap.length; j++) {
+				weightMap[j] = (int) currentRow.getCell(j+1).getNumericCellValue();
+			}
+			weightMaps.put(currentRow.getCell(0).getStringCellValue(), weightMap);
+			pos++;
+		}
+		commitSheetParseEvent(event, fileName, WeightMapLayout.MATRIX_SHEET_NAME, null, weightMaps.size() + 1, slots.size());
+		
+		return createOptimizationSessionEntry(optId, framework, scheduledTimes, slots, weightMaps);
+	}
+	
+	/**
+	 * Converts an excel target file with weight maps in layout MATRIX (sheet 'WeightMatrix') without
+	 * parsing the whole workbook. The sheets 'Flights' and 'WeightMatrix' are streamed (each in one pass).
+	 * @param fileName Excel file name
+	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
+	 */
+	private static OptimizationSessionEntry convertMatrixToOptimizationSessionEntry(String fileName) {
+		String[] optInfo = new String[2];
+		Map<String, Instant> scheduledTimes = new LinkedHashMap<String, Instant>();
+		ExcelStreamingReader.readSheet(fileName, "Flights", row -> {
+			if (row.getRowNum() <= 1) {
+				// optimization id and framework are in column 8 of row 0 and row 1
+				optInfo[row.getRowNum()] = row.getString(8);
+			}
+			if (row.getRowNum() == 0) {
+				return true;
+			}
+			if (row.getString(0) == null || row.getString(0).equals("")) {
+				return false;
+			}
+			scheduledTimes.put(row.getString(0), 
+					row.getLocalDateTime(1).atZone(ZoneId.of("Europe/Vienna")).toInstant());
+			return true;
+		});
+		
+		List<SlotInfo> slots = new LinkedList<SlotInfo>();
+		Map<String, int[]> weightMaps = new LinkedHashMap<String, int[]>();
+		ExcelStreamingReader.readSheet(fileName, WeightMapLayout.MATRIX_SHEET_NAME, row -> {
+			if (row.getRowNum() == 0) {
+				for (int j = 1; row.getString(j) != null && !row.getString(j).equals(""); j++) {
+					slots.add(new SlotInfo(row.getLocalDateTime(j).atZone(ZoneId.of("Europe/Vienna")).toInstant()));
+				}
+				return true;
+			}
+			if (row.getString(0) == null) {
+				return false;
+			}
+			int[] weightMap = new int[slots.size()];
+			for (int j = 0; j < weightMap.length; j++) {
+				weightMap[j] = (int) row.getNumeric(j+1);
+			}
+			weightMaps.put(row.getString(0), weightMap);
+			return true;
+		});
+		
+		return createOptimizationSessionEntry(optInfo[0], optInfo[1], scheduledTimes, slots, weightMaps);
+	}
+	
+	/**
+	 * Creates the OptimizationSessionEntry from the data of an excel target file with layout MATRIX. As no
+	 * initial flight sequence is stored in the excel file the order is assumed as given by the rows.
+	 */
+	private static OptimizationSessionEntry createOptimizationSessionEntry(String optId, String framework,
+			Map<String, Instant> scheduledTimes, List<SlotInfo> slots, Map<String, int[]> weightMaps) {
+		SlotInfo[] slotInfos = slots.toArray(new SlotInfo[slots.size()]);
+		Flight[] flights = new Flight[scheduledTimes.size()];
+		String[] initialFlightSequence = new String[scheduledTimes.size()];
+		int i = 0;
+		for (Map.Entry<String, Instant> e: scheduledTimes.entrySet()) {
+			initialFlightSequence[i] = e.getKey();
+			flights[i] = new Flight(e.getKey(), e.getValue(), weightMaps.get(e.getKey()));
+			i++;
+		}
+		
+        if (framework != null && framework.equals("null")) {
+        	framework = null;
+        }
+		
+        logger.debug("OptimizationSessionEntry: optId: " + optId + " | initialFlightSequence length: " + initialFlightSequence.length + 
+        		" | flightsArray length: " + flights.length + " | slots length: " + slotInfos.length + " | optimizationFramework: " + framework);
+		
+		return new OptimizationSessionEntry(optId, initialFlightSequence, flights, slotInfos, framework);
+	}
+
 	/**
 	 * Converts excel file (from fileName) which has to be in format as the files are, when no weight maps
 	 * have been written to them.
@@ -360,13 +602,24 @@ public class ExcelInputReader {
 	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
 	 */
 	public static OptimizationSessionEntry convertToOptimizationSessionEntryNoWeightMap(String excelSource, List<Flight> flights, String optId) {
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(excelSource)) {
+        	return convertToOptimizationSessionEntryNoWeightMap(session, flights, optId);
+        }
+	}
+
+	/**
+	 * Converts the excel file of the session which has to be in format as the files are, when no weight maps
+	 * have been written to them.
+	 * @param excelSource opened excel source file
+	 * @param flights  list of flights
+	 * @param optId optimization id
+	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
+	 */
+	public static OptimizationSessionEntry convertToOptimizationSessionEntryNoWeightMap(ExcelWorkbookSession excelSource, List<Flight> flights, String optId) {
 		
-        logger.info("Reading from Excel file '" + excelSource + "'.");
+        logger.info("Reading from Excel file '" + excelSource.getFileName() + "'.");
         logger.info("Read data from file to create OptimizationSessionEntry object from excel source file and flight list.");
 
-        // get optId
-        List<OptimizationEntry> optEList = ExcelInputReader.readOptimizationsFromFile(excelSource);
-        
         // get initialFlightSequence
         String[] initialFlightSequence = new String[flights.size()];
         int i = 0;
@@ -384,20 +637,12 @@ public class ExcelInputReader {
         }
 	
         // get slots
-        OptimizationEntry opt = null;
-        for (OptimizationEntry o: optEList) {
-        	if (o.getOptId().equals(optId)) {
-        		opt = o;
-        	}
-        }
-        List<Slot> flightOrderPlaces = FlightGenerator.generateSequenceItems(opt);
+        OptimizationEntry opt = excelSource.getOptimization(optId);
+        SlotTimeline flightOrderPlaces = opt.getSlotTimeline();
         // convert Slot to SlotInfo
         SlotInfo[] slots = new SlotInfo[flightOrderPlaces.size()];
-        int k = 0;
-        for (Slot s: flightOrderPlaces) {
-        	SlotInfo slot = new SlotInfo(s.getTime().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-        	slots[k] = slot;
-        	k++;
+        for (int k = 0; k < slots.length; k++) {
+        	slots[k] = new SlotInfo(flightOrderPlaces.getTime(k).atZone(ZoneId.of("Europe/Vienna")).toInstant());
         }
 	
         // get optimizationFramework
@@ -420,13 +665,26 @@ public class ExcelInputReader {
      * @return a list of margins
      */
     public static Map<MarginEntry,LocalDateTime> readMarginsAndResultFromFile(String fileName) {
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(fileName)) {
+            return readMarginsAndResultFromFile(session);
+        }
+    }
+
+    /**
+     * Read Margins and AssignedTime from the Excel file of the session and return them as a list of margins.
+     *
+     * @param session opened Excel input file
+     * @return a list of margins
+     */
+    @SuppressWarnings("try")
+    public static Map<MarginEntry,LocalDateTime> readMarginsAndResultFromFile(ExcelWorkbookSession session) {
         Map<MarginEntry,LocalDateTime> marginResultList = new LinkedHashMap<MarginEntry,LocalDateTime>();
 
-        try (InputStream input = new FileInputStream(fileName)) {
-            logger.info("Reading sheet 'Flights' from Excel file '" + fileName + "'.");
+        try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.EXCEL_READ)) {
+            logger.info("Reading sheet 'Flights' from Excel file '" + session.getFileName() + "'.");
             logger.info("Reading margins from the file.");
 
-            Workbook wb = WorkbookFactory.create(input);
+            Workbook wb = session.getWorkbook();
 
             Sheet sheetFlights = wb.getSheet("Flights");
 
@@ -478,25 +736,33 @@ public class ExcelInputReader {
 	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
 	 */
 	public static OptimizationSessionEntry convertToOptimizationSessionEntry(String fileName, List<MarginEntry> marginList) {
-		OptimizationSessionEntry ose = convertToOptimizationSessionEntry(fileName);
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(fileName)) {
+        	return convertToOptimizationSessionEntry(session, marginList);
+        }
+	}
+
+	/**
+	 * Converts the excel file of the session which has to be in format as the files are, when weight maps
+	 * have been written to them (as the output of writeWeightsToFile is), including margins (for generated JSON file).
+	 * @param session opened Excel file
+	 * @param marginList list of margins
+	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
+	 */
+	public static OptimizationSessionEntry convertToOptimizationSessionEntry(ExcelWorkbookSession session, List<MarginEntry> marginList) {
+		return convertToOptimizationSessionEntry(session, FlightRegistry.ofMargins(marginList));
+	}
+
+	/**
+	 * Converts the excel file of the session which has to be in format as the files are, when weight maps
+	 * have been written to them (as the output of writeWeightsToFile is), including margins (for generated JSON file).
+	 * @param session opened Excel file
+	 * @param margins margins indexed by flightId (e.g. ExcelWorkbookSession.getFlightRegistry of the excel source file)
+	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
+	 */
+	public static OptimizationSessionEntry convertToOptimizationSessionEntry(ExcelWorkbookSession session, FlightRegistry margins) {
+		OptimizationSessionEntry ose = convertToOptimizationSessionEntry(session);
 		logger.info("Set Margin-List with given input.");
-		List<MarginInfo> margins = new LinkedList<MarginInfo>();
-		for (Flight f: ose.getFlights()) {
-			MarginInfo currentMarginInfo = new MarginInfo();
-			for (MarginEntry me: marginList) {
-				if (f.getFlightId().equals(me.getFlightId())) {
-					currentMarginInfo.setFlightId(f.getFlightId());
-					currentMarginInfo.setScheduledTime(me.getScheduledTime().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-					currentMarginInfo.setTimeNotBefore(me.getTimeNotBefore().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-					currentMarginInfo.setTimeWished(me.getTimeWished().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-					currentMarginInfo.setTimeNotAfter(me.getTimeNotAfter().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-				}
-			}
-			if (currentMarginInfo.getTimeNotAfter() != null) {
-				margins.add(currentMarginInfo);
-			}
-		}
-		ose.setMargins(margins);
+		ose.setMargins(margins.getMarginInfos(ose.getFlights()));
 		return ose;
 	}
 
@@ -511,25 +777,39 @@ public class ExcelInputReader {
 	 */
 	public static OptimizationSessionEntry convertToOptimizationSessionEntryNoWeightMap(String excelSource,
 			List<Flight> generateFlights, String optId, List<MarginEntry> marginList) {
+        try (ExcelWorkbookSession session = new ExcelWorkbookSession(excelSource)) {
+        	return convertToOptimizationSessionEntryNoWeightMap(session, generateFlights, optId, marginList);
+        }
+	}
+
+	/**
+	 * Converts the excel file of the session which has to be in format as the files are, when no weight maps
+	 * have been written to them, including margins (for generated JSON file).
+	 * @param excelSource opened excel source file
+	 * @param generateFlights list of flights
+	 * @param optId optimization id
+	 * @param marginList list of margins
+	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
+	 */
+	public static OptimizationSessionEntry convertToOptimizationSessionEntryNoWeightMap(ExcelWorkbookSession excelSource,
+			List<Flight> generateFlights, String optId, List<MarginEntry> marginList) {
+		return convertToOptimizationSessionEntryNoWeightMap(excelSource, generateFlights, optId, FlightRegistry.ofMargins(marginList));
+	}
+
+	/**
+	 * Converts the excel file of the session which has to be in format as the files are, when no weight maps
+	 * have been written to them, including margins (for generated JSON file).
+	 * @param excelSource opened excel source file
+	 * @param generateFlights list of flights
+	 * @param optId optimization id
+	 * @param margins margins indexed by flightId (e.g. ExcelWorkbookSession.getFlightRegistry of the excel source file)
+	 * @return OptimizationSessionEntry to be used for creating OptimizationDTO (SlotMachine-Optimizer)
+	 */
+	public static OptimizationSessionEntry convertToOptimizationSessionEntryNoWeightMap(ExcelWorkbookSession excelSource,
+			List<Flight> generateFlights, String optId, FlightRegistry margins) {
 		OptimizationSessionEntry ose = convertToOptimizationSessionEntryNoWeightMap(excelSource, generateFlights, optId);
 		logger.info("Set Margin-List with given input.");
-		List<MarginInfo> margins = new LinkedList<MarginInfo>();
-		for (Flight f: ose.getFlights()) {
-			MarginInfo currentMarginInfo = new MarginInfo();
-			for (MarginEntry me: marginList) {
-				if (f.getFlightId().equals(me.getFlightId())) {
-					currentMarginInfo.setFlightId(f.getFlightId());
-					currentMarginInfo.setScheduledTime(me.getScheduledTime().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-					currentMarginInfo.setTimeNotBefore(me.getTimeNotBefore().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-					currentMarginInfo.setTimeWished(me.getTimeWished().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-					currentMarginInfo.setTimeNotAfter(me.getTimeNotAfter().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-				}
-			}
-			if (currentMarginInfo.getTimeNotAfter() != null) {
-				margins.add(currentMarginInfo);
-			}
-		}
-		ose.setMargins(margins);
+		ose.setMargins(margins.getMarginInfos(ose.getFlights()));
 		return ose;
 	}
 }
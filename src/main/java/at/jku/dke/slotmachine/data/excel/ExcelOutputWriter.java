@@ -10,7 +10,6 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +17,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -27,8 +27,12 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import at.jku.dke.slotmachine.data.excel.jfr.ExcelSheetWriteEvent;
+import at.jku.dke.slotmachine.data.excel.jfr.ExcelWorkbookWriteEvent;
+
 public class ExcelOutputWriter {
 	private static final Logger logger = LogManager.getLogger();
 	
@@ -40,13 +44,82 @@ public class ExcelOutputWriter {
 	 * @param sourceName filename of the file, which is the 'origin'
 	 */
 	public static void writeWeightsToFile(List<Flight> flights, OptimizationEntry opt, String fileName, String sourceName) {
-        try (InputStream input = new FileInputStream(sourceName)) {
-            logger.info("Reading sheet 'Flights' from Excel file '" + sourceName + "'.");
-
-            Workbook wbSource = WorkbookFactory.create(input);
+		try (ExcelWorkbookSession source = new ExcelWorkbookSession(sourceName)) {
+			writeWeightsToFile(flights, opt, fileName, source);
+		}
+	}
+	
+	/**
+	 * write weights to fileName, for each optimization
+	 * @param flights list of flights with weight map
+	 * @param opt OptimizationEntry, to get Optimization-Id and times of the flightorder-places
+	 * @param fileName filename of the file, which should be created
+	 * @param source opened file, which is the 'origin'
+	 */
+	public static void writeWeightsToFile(List<Flight> flights, OptimizationEntry opt, String fileName, ExcelWorkbookSession source) {
+		writeWeightsToFile(flights, opt, fileName, source, WeightMapLayout.SHEET_PER_FLIGHT);
+	}
+	
+	/**
+	 * write weights to fileName, for each optimization
+	 * @param flights list of flights with weight map
+	 * @param opt OptimizationEntry, to get Optimization-Id and times of the flightorder-places
+	 * @param fileName filename of the file, which should be created
+	 * @param source opened file, which is the 'origin'
+	 * @param layout SHEET_PER_FLIGHT (one sheet per flight) or MATRIX (one sheet 'WeightMatrix' for all flights)
+	 */
+	public static void writeWeightsToFile(List<Flight> flights, OptimizationEntry opt, String fileName, ExcelWorkbookSession source,
+			WeightMapLayout layout) {
+		writeWeightsToFile(flights, opt, fileName, source, layout, 0);
+	}
+	
+	/**
+	 * write weights to fileName, for each optimization
+	 * @param flights list of flights with weight map
+	 * @param opt OptimizationEntry, to get Optimization-Id and times of the flightorder-places
+	 * @param fileName filename of the file, which should be created
+	 * @param source opened file, which is the 'origin'
+	 * @param layout SHEET_PER_FLIGHT (one sheet per flight) or MATRIX (one sheet 'WeightMatrix' for all flights)
+	 * @param rowWindow number of rows per sheet kept in memory, older rows are flushed to temporary files (SXSSF);
+	 * 			0 or less builds the whole workbook in memory (XSSF). Streaming always uses the layout MATRIX, because
+	 * 			SXSSF keeps a temporary file, a compressor and the row window of each sheet open until the workbook is
+	 * 			written, with one sheet per flight the open files and the memory would grow with the number of flights.
+	 * 			If the slots do not fit into the columns of sheet 'WeightMatrix', no file is written in streaming mode.
+	 */
+	@SuppressWarnings("try")
+	public static void writeWeightsToFile(List<Flight> flights, OptimizationEntry opt, String fileName, ExcelWorkbookSession source,
+			WeightMapLayout layout, int rowWindow) {
+        try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.EXCEL_WRITE)) {
+            // margins of sheet 'Flights' of the source file (same order as the flights)
+            List<MarginEntry> marginList = source.getMargins();
+            MarginEntry[] margins = marginList.toArray(new MarginEntry[marginList.size()]);
+            if (margins.length < flights.size()) {
+            	logger.error("Excel file '" + source.getFileName() + "' contains margins of " + margins.length + " flights, but " + 
+            			flights.size() + " flights are given. Margins of the remaining flights are not written.");
+            }
             
-			XSSFWorkbook wb = new XSSFWorkbook();
-			logger.info("Create new Excel Workbook.");
+			// a sheet has at most 16384 columns (first column is used for the flightId)
+			boolean fitsMatrix = opt.getSlotTimeline().size() + 1 <= SpreadsheetVersion.EXCEL2007.getMaxColumns();
+			if (rowWindow > 0 && !fitsMatrix) {
+				logger.error("Too many slots (" + opt.getSlotTimeline().size() + ") for sheet '" + WeightMapLayout.MATRIX_SHEET_NAME + 
+						"', which is required in streaming mode. Excel file '" + fileName + "' is not written, write it without -rowWindow.");
+				return;
+			}
+			Workbook wb;
+			if (rowWindow > 0 && layout == WeightMapLayout.SHEET_PER_FLIGHT) {
+				logger.info("Streaming mode writes all weight maps to one sheet '" + WeightMapLayout.MATRIX_SHEET_NAME + 
+						"' instead of one sheet per flight.");
+				layout = WeightMapLayout.MATRIX;
+			}
+			if (rowWindow > 0) {
+				logger.info("Create new Excel Workbook (streaming, " + rowWindow + " rows per sheet in memory).");
+				SXSSFWorkbook streamingWb = new SXSSFWorkbook(rowWindow);
+				streamingWb.setCompressTempFiles(true);
+				wb = streamingWb;
+			} else {
+				wb = new XSSFWorkbook();
+				logger.info("Create new Excel Workbook.");
+			}
 			// create bold style
 			Font fontBold = wb.createFont();
 			fontBold.setBold(true);
@@ -75,6 +148,8 @@ public class ExcelOutputWriter {
 			CellStyle leftAlignment = wb.createCellStyle();
 			leftAlignment.setAlignment(HorizontalAlignment.LEFT);
 			
+			ExcelSheetWriteEvent flightsEvent = new ExcelSheetWriteEvent();
+			flightsEvent.begin();
 			Sheet sheetFlightNew = wb.createSheet("Flights");
 			// set widths
 			sheetFlightNew.setColumnWidth(1, 4000);
@@ -115,129 +190,245 @@ public class ExcelOutputWriter {
 			titleCell.setCellStyle(boldStyle);
 			titleCell = row.createCell(8);
 			titleCell.setCellValue(opt.getOptId());
-			Cell subtitleCell = sheetFlightNew.createRow(1).createCell(7);
-			subtitleCell.setCellValue("Optimization-Framework:");
-			subtitleCell = sheetFlightNew.getRow(1).createCell(8);
-			if (!(opt.getOptimizationFramework().equals("null")) || (opt.getOptimizationFramework() != null)) {
-				subtitleCell.setCellValue(opt.getOptimizationFramework());
-			} else {
-				subtitleCell.setCellValue("");
-			}
-			subtitleCell.setCellStyle(leftAlignment);
-			subtitleCell = sheetFlightNew.createRow(2).createCell(7);
-			subtitleCell.setCellValue("Optimization-StartTime:");
-			subtitleCell = sheetFlightNew.getRow(2).createCell(8);
-			subtitleCell.setCellValue(opt.getStartTime().withNano(0).withSecond(0));
-			subtitleCell.setCellStyle(dateStyleLeft);
-			subtitleCell = sheetFlightNew.createRow(3).createCell(7);
-			subtitleCell.setCellValue("Optimization-EndTime:");
-			subtitleCell = sheetFlightNew.getRow(3).createCell(8);
-			subtitleCell.setCellValue(opt.getEndTime());
-			subtitleCell.setCellStyle(dateStyleLeft);
-			subtitleCell = sheetFlightNew.createRow(4).createCell(7);
-			subtitleCell.setCellValue("Optimization-Interval [sec]:");
-			subtitleCell = sheetFlightNew.getRow(4).createCell(8);
-			subtitleCell.setCellValue(opt.getInterval());
-			subtitleCell.setCellStyle(leftAlignment);
-			subtitleCell = sheetFlightNew.createRow(5).createCell(7);
-			subtitleCell.setCellValue("Optimization-minValue:");
-			subtitleCell = sheetFlightNew.getRow(5).createCell(8);
-			subtitleCell.setCellValue(opt.getMinValue());
-			subtitleCell.setCellStyle(leftAlignment);
-			subtitleCell = sheetFlightNew.createRow(6).createCell(7);
-			subtitleCell.setCellValue("Optimization-maxValue:");
-			subtitleCell = sheetFlightNew.getRow(6).createCell(8);
-			subtitleCell.setCellValue(opt.getMaxValue());
-			subtitleCell.setCellStyle(leftAlignment);
-			subtitleCell = sheetFlightNew.createRow(7).createCell(7);
-			subtitleCell.setCellValue("Optimization-dropValue:");
-			subtitleCell = sheetFlightNew.getRow(7).createCell(8);
-			subtitleCell.setCellValue(opt.getDropValue());
-			subtitleCell.setCellStyle(leftAlignment);
-			
-			
 			
 			// create Slots for flight order time
-			List<Slot> flightOrderPlaces = FlightGenerator.generateSequenceItems(opt);
+			SlotTimeline flightOrderPlaces = opt.getSlotTimeline();
 			
-	
+			if (layout == WeightMapLayout.MATRIX && !fitsMatrix) {
+				logger.error("Too many slots (" + flightOrderPlaces.size() + ") for sheet '" + WeightMapLayout.MATRIX_SHEET_NAME + 
+						"'. Therefore, seperate sheets for each flight are created.");
+				layout = WeightMapLayout.SHEET_PER_FLIGHT;
+			}
+			
+			// write slot header of the weight matrix
+			Sheet sheetMatrix = null;
+			ExcelSheetWriteEvent matrixEvent = null;
+			if (layout == WeightMapLayout.MATRIX) {
+				logger.info("Creating sheet '" + WeightMapLayout.MATRIX_SHEET_NAME + "' with the weight maps of all flights.");
+				matrixEvent = new ExcelSheetWriteEvent();
+				matrixEvent.begin();
+				sheetMatrix = wb.createSheet(WeightMapLayout.MATRIX_SHEET_NAME);
+				sheetMatrix.setColumnWidth(0, 4000);
+				Row headerRow = sheetMatrix.createRow(0);
+				Cell headerCell = headerRow.createCell(0);
+				headerCell.setCellValue("FlightId");
+				headerCell.setCellStyle(boldStyle);
+				int currentColumnPos = 1;
+				for (Slot s: flightOrderPlaces) {
+					headerCell = headerRow.createCell(currentColumnPos);
+					headerCell.setCellValue(s.getTime().withNano(0).withSecond(0));
+					headerCell.setCellStyle(dateStyle);
+					sheetMatrix.setColumnWidth(currentColumnPos, 4000);
+					currentColumnPos++;
+				}
+			} else {
+				logger.info("Creating seperate sheets for each flight with assigned weight map.");
+			}
 			
-			// write weights to separate sheets
-			logger.info("Creating seperate sheets for each flight with assigned weight map.");
+			// write weights to separate sheets or rows of the weight matrix
+			int flightIndex = 0;
 			for (Flight f: flights) {
-				// write title row
-				Sheet sheetWeight = wb.createSheet(f.getFlightId());
-				Row row0 = sheetWeight.createRow(0);
-				Cell cell0_0 = row0.createCell(0);
-				cell0_0.setCellValue("Slot");
-				cell0_0.setCellStyle(boldStyle);
-				Cell cell0_1 = row0.createCell(1);
-				cell0_1.setCellValue("Weight");
-				cell0_1.setCellStyle(boldStyle);
-				sheetWeight.setColumnWidth(0, 4000);
-				
-				// write current flight to title sheet and do not overwrite existing rows
-				if (sheetFlightNew.getRow(flights.indexOf(f)+1) == null) {
-					sheetFlightNew
-						.createRow(flights.indexOf(f)+1)
-						.createCell(0)
-						.setCellValue(f.getFlightId());
-				} else {
-					sheetFlightNew
-					.getRow(flights.indexOf(f)+1)
-					.createCell(0)
-					.setCellValue(f.getFlightId());
+				Sheet sheetWeight = null;
+				ExcelSheetWriteEvent sheetEvent = null;
+				if (layout == WeightMapLayout.SHEET_PER_FLIGHT) {
+					sheetEvent = new ExcelSheetWriteEvent();
+					sheetEvent.begin();
+					// write title row
+					sheetWeight = wb.createSheet(f.getFlightId());
+					Row row0 = sheetWeight.createRow(0);
+					Cell cell0_0 = row0.createCell(0);
+					cell0_0.setCellValue("Slot");
+					cell0_0.setCellStyle(boldStyle);
+					Cell cell0_1 = row0.createCell(1);
+					cell0_1.setCellValue("Weight");
+					cell0_1.setCellStyle(boldStyle);
+					sheetWeight.setColumnWidth(0, 4000);
 				}
+				
+				// write current flight to title sheet (rows are created in ascending order, 
+				// the optimization information is added to the first rows)
+				Row currentRowFlight = sheetFlightNew.createRow(flightIndex+1);
+				writeOptimizationInfo(currentRowFlight, opt, dateStyleLeft, leftAlignment);
+				currentRowFlight.createCell(0).setCellValue(f.getFlightId());
 				// 'copy' ScheduledTime, TimeNotBefore, TimeWished, TimeNotAfter
-					// ScheduledTime
-				Row currentRowFlight = sheetFlightNew.getRow(flights.indexOf(f)+1);
-				Cell currentCellFlight = currentRowFlight.createCell(1);
-				currentCellFlight.setCellValue(wbSource.getSheet("Flights").getRow(flights.indexOf(f)+1).getCell(1).getLocalDateTimeCellValue().withNano(0).withSecond(0));
-				currentCellFlight.setCellStyle(dateStyle);
-					// TimeNotBefore
-				currentCellFlight = currentRowFlight.createCell(2);
-				currentCellFlight.setCellValue(wbSource.getSheet("Flights").getRow(flights.indexOf(f)+1).getCell(2).getLocalDateTimeCellValue().withNano(0).withSecond(0));
-				currentCellFlight.setCellStyle(dateStyle);
-					// TimeWished
-				currentCellFlight = currentRowFlight.createCell(3);
-				currentCellFlight.setCellValue(wbSource.getSheet("Flights").getRow(flights.indexOf(f)+1).getCell(3).getLocalDateTimeCellValue().withNano(0).withSecond(0));
-				currentCellFlight.setCellStyle(dateStyle);
-					// TimeNotAfter
-				currentCellFlight = currentRowFlight.createCell(4);
-				currentCellFlight.setCellValue(wbSource.getSheet("Flights").getRow(flights.indexOf(f)+1).getCell(4).getLocalDateTimeCellValue().withNano(0).withSecond(0));
-				currentCellFlight.setCellStyle(dateStyle);
-					// priority
-				currentCellFlight = currentRowFlight.createCell(5);
-				currentCellFlight.setCellValue(wbSource.getSheet("Flights").getRow(flights.indexOf(f)+1).getCell(5).getNumericCellValue());
-				currentCellFlight.setCellStyle(leftAlignment);
+				if (flightIndex < margins.length) {
+					MarginEntry margin = margins[flightIndex];
+						// ScheduledTime
+					Cell currentCellFlight = currentRowFlight.createCell(1);
+					currentCellFlight.setCellValue(margin.getScheduledTime().withNano(0).withSecond(0));
+					currentCellFlight.setCellStyle(dateStyle);
+						// TimeNotBefore
+					currentCellFlight = currentRowFlight.createCell(2);
+					currentCellFlight.setCellValue(margin.getTimeNotBefore().withNano(0).withSecond(0));
+					currentCellFlight.setCellStyle(dateStyle);
+						// TimeWished
+					currentCellFlight = currentRowFlight.createCell(3);
+					currentCellFlight.setCellValue(margin.getTimeWished().withNano(0).withSecond(0));
+					currentCellFlight.setCellStyle(dateStyle);
+						// TimeNotAfter
+					currentCellFlight = currentRowFlight.createCell(4);
+					currentCellFlight.setCellValue(margin.getTimeNotAfter().withNano(0).withSecond(0));
+					currentCellFlight.setCellStyle(dateStyle);
+						// priority
+					currentCellFlight = currentRowFlight.createCell(5);
+					currentCellFlight.setCellValue(margin.getPriority());
+					currentCellFlight.setCellStyle(leftAlignment);
+				}
 				
 				// write weight to current flight
-				int currentRowPos = 1;
-				for (Slot s: flightOrderPlaces) {
-					Row currentRow = sheetWeight.createRow(currentRowPos);
-					Cell currentCell = currentRow.createCell(0);
-					currentCell.setCellValue(s.getTime().withNano(0).withSecond(0));
-					currentCell.setCellStyle(dateStyle);
-					currentCell = currentRow.createCell(1);
-					currentCell.setCellValue(f.getWeightMap()[currentRowPos-1]);
-					currentRowPos++;
-				}					
+				// weights are read with getWeight, an encoded weight map is not expanded
+				if (layout == WeightMapLayout.MATRIX) {
+					Row matrixRow = sheetMatrix.createRow(sheetMatrix.getLastRowNum() + 1);
+					matrixRow.createCell(0).setCellValue(f.getFlightId());
+					for (int i = 0; i < flightOrderPlaces.size(); i++) {
+						matrixRow.createCell(i+1).setCellValue(f.getWeight(i));
+					}
+				} else {
+					int currentRowPos = 1;
+					for (Slot s: flightOrderPlaces) {
+						Row currentRow = sheetWeight.createRow(currentRowPos);
+						Cell currentCell = currentRow.createCell(0);
+						currentCell.setCellValue(s.getTime().withNano(0).withSecond(0));
+						currentCell.setCellStyle(dateStyle);
+						currentCell = currentRow.createCell(1);
+						currentCell.setCellValue(f.getWeight(currentRowPos-1));
+						currentRowPos++;
+					}
+					commitSheetWriteEvent(sheetEvent, fileName, f.getFlightId(), f.getFlightId(), currentRowPos, flightOrderPlaces.size());
+				}
+				flightIndex++;
+			}
+			if (matrixEvent != null) {
+				commitSheetWriteEvent(matrixEvent, fileName, WeightMapLayout.MATRIX_SHEET_NAME, null, flights.size() + 1, flightOrderPlaces.size());
 			}
 			
+			// optimization information, if there are less flights than rows of optimization information
+			for (int i = flights.size() + 1; i <= 7; i++) {
+				writeOptimizationInfo(sheetFlightNew.createRow(i), opt, dateStyleLeft, leftAlignment);
+			}
+			commitSheetWriteEvent(flightsEvent, fileName, "Flights", null, sheetFlightNew.getLastRowNum() + 1, 0);
+			
 			// write information to file
+			int sheets = wb.getNumberOfSheets();
+			ExcelWorkbookWriteEvent writeEvent = new ExcelWorkbookWriteEvent();
+			writeEvent.begin();
 			try (OutputStream fileOut = new FileOutputStream(fileName)) {		
 			    wb.write(fileOut);
-		        wb.close();
 		        logger.info("Finished creating the Excel file " + fileName + ".");
 			} catch (IOException e) {
 	            logger.error("Could not read Excel file.", e);
+	        } finally {
+	        	if (wb instanceof SXSSFWorkbook) {
+	        		// delete temporary files
+	        		((SXSSFWorkbook) wb).dispose();
+	        	}
+	        	wb.close();
 	        }
+			commitWorkbookWriteEvent(writeEvent, fileName, sheets);
         } catch (IOException e){
         	e.printStackTrace();
         }
 
 	}
 	
+	/**
+	 * writes the optimization information (column 7 and 8 of rows 0 to 7 of sheet 'Flights') 
+	 * belonging to the given row, the optimization id is part of the title row
+	 * @param row row 1 to 7 of sheet 'Flights' (other rows are not changed)
+	 * @param opt OptimizationEntry
+	 * @param dateStyleLeft date style with left alignment
+	 * @param leftAlignment left alignment style
+	 */
+	private static void writeOptimizationInfo(Row row, OptimizationEntry opt, CellStyle dateStyleLeft, CellStyle leftAlignment) {
+		Cell subtitleCell;
+		switch (row.getRowNum()) {
+			case 1:
+				subtitleCell = row.createCell(7);
+				subtitleCell.setCellValue("Optimization-Framework:");
+				subtitleCell = row.createCell(8);
+				if (!(opt.getOptimizationFramework().equals("null")) || (opt.getOptimizationFramework() != null)) {
+					subtitleCell.setCellValue(opt.getOptimizationFramework());
+				} else {
+					subtitleCell.setCellValue("");
+				}
+				subtitleCell.setCellStyle(leftAlignment);
+				break;
+			case 2:
+				subtitleCell = row.createCell(7);
+				subtitleCell.setCellValue("Optimization-StartTime:");
+				subtitleCell = row.createCell(8);
+				subtitleCell.setCellValue(opt.getStartTime().withNano(0).withSecond(0));
+				subtitleCell.setCellStyle(dateStyleLeft);
+				break;
+			case 3:
+				subtitleCell = row.createCell(7);
+				subtitleCell.setCellValue("Optimization-EndTime:");
+				subtitleCell = row.createCell(8);
+				subtitleCell.setCellValue(opt.getEndTime());
+				subtitleCell.setCellStyle(dateStyleLeft);
+				break;
+			case 4:
+				subtitleCell = row.createCell(7);
+				subtitleCell.setCellValue("Optimization-Interval [sec]:");
+				subtitleCell = row.createCell(8);
+				subtitleCell.setCellValue(opt.getInterval());
+				subtitleCell.setCellStyle(leftAlignment);
+				break;
+			case 5:
+				subtitleCell = row.createCell(7);
+				subtitleCell.setCellValue("Optimization-minValue:");
+				subtitleCell = row.createCell(8);
+				subtitleCell.setCellValue(opt.getMinValue());
+				subtitleCell.setCellStyle(leftAlignment);
+				break;
+			case 6:
+				subtitleCell = row.createCell(7);
+				subtitleCell.setCellValue("Optimization-maxValue:");
+				subtitleCell = row.createCell(8);
+				subtitleCell.setCellValue(opt.getMaxValue());
+				subtitleCell.setCellStyle(leftAlignment);
+				break;
+			case 7:
+				subtitleCell = row.createCell(7);
+				subtitleCell.setCellValue("Optimization-dropValue:");
+				subtitleCell = row.createCell(8);
+				subtitleCell.setCellValue(opt.getDropValue());
+				subtitleCell.setCellStyle(leftAlignment);
+				break;
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * commits the event of a written sheet (only if JFR records the event)
+	 */
+	private static void commitSheetWriteEvent(ExcelSheetWriteEvent event, String fileName, String sheetName, String flightId, 
+			int rows, int slotCount) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.fileName = fileName;
+			event.sheetName = sheetName;
+			event.flightId = flightId;
+			event.rows = rows;
+			event.slotCount = slotCount;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * commits the event of a written workbook with the size of the file (only if JFR records the event)
+	 */
+	private static void commitWorkbookWriteEvent(ExcelWorkbookWriteEvent event, String fileName, int sheets) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.fileName = fileName;
+			event.sheets = sheets;
+			event.bytes = new File(fileName).length();
+			event.commit();
+		}
+	}
+	
 	/**
 	 * writes flight sequence into excel target file (expects sheet with margins included)
 	 * @param sequence flight sequence with positions and optimization id
@@ -249,10 +440,28 @@ public class ExcelOutputWriter {
 			logger.error("Given optimization id was: " + sequence.getOptId() + ".");
 			return;
 		}
-        try (InputStream input = new FileInputStream(excelFile)) {
+		try (ExcelWorkbookSession session = new ExcelWorkbookSession(excelFile)) {
+			writeFlightSequenceOrder(sequence, session, opt);
+		}
+	}
+	
+	/**
+	 * writes flight sequence into the excel target file of the session (expects sheet with margins included)
+	 * @param sequence flight sequence with positions and optimization id
+	 * @param session opened file, which should be edited (the changes are written back to the file of the session)
+	 */
+	@SuppressWarnings("try")
+	public static void writeFlightSequenceOrder(FlightSequenceEntry sequence, ExcelWorkbookSession session, OptimizationEntry opt) {
+		if (opt == null || sequence == null || session == null) {
+			logger.error("Input parameters have been wrong. No FlightSequence or no excel file given or no existing optimization entry does belong to flight sequence.");
+			logger.error("Given optimization id was: " + sequence.getOptId() + ".");
+			return;
+		}
+		String excelFile = session.getFileName();
+        try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.EXCEL_WRITE)) {
             logger.info("Reading from Excel file '" + excelFile + "'.");
 
-            Workbook wb = WorkbookFactory.create(input);
+            Workbook wb = session.getWorkbook();
 
     		// create bold style
     		Font fontBold = wb.createFont();
@@ -280,7 +489,7 @@ public class ExcelOutputWriter {
 			logger.info("Style and settings set for file.");
 			
 			boolean eof = false;
-			List<String> flightIdOrder = new LinkedList<String>();
+			FlightRegistry flightRows = new FlightRegistry();
 			int pos = 0;
 			do {
 				pos++;
@@ -293,28 +502,21 @@ public class ExcelOutputWriter {
 						eof = true;
 					} else {
 						String currentCell = currentRow.getCell(0).getStringCellValue();
-						flightIdOrder.add(currentCell);
+						flightRows.addRow(currentCell, pos);
 					}
 				}
 			} while (!eof);
 			
-			List<Slot> flightOrderPlaces = FlightGenerator.generateSequenceItems(opt);
+			SlotTimeline flightOrderPlaces = opt.getSlotTimeline();
 			
 			for(int i = 0; i < sequence.getOptimizedFlightSequence().length; i++) {
 				// get position of current flight (in sequence) (-> j)
-				int j = -1;
-				int k = 0;
-				for (String s: flightIdOrder) {
-					if (s.equals(sequence.getOptimizedFlightSequence()[i])){
-						j = k+1;
-					}
-					k++;
-				}
+				int j = flightRows.getRowIndex(sequence.getOptimizedFlightSequence()[i]);
 				// only continue if found
 				if (j != -1) {
 					Row currentRow = sheetFlights.getRow(j);
 					Cell currentCell = currentRow.createCell(6);
-					currentCell.setCellValue(flightOrderPlaces.get(i).getTime().withNano(0).withSecond(0));
+					currentCell.setCellValue(flightOrderPlaces.getTime(i).withNano(0).withSecond(0));
 					currentCell.setCellStyle(dateStyle);
 				}
 			}
@@ -322,13 +524,15 @@ public class ExcelOutputWriter {
 
 			
 			// write information to file
+			ExcelWorkbookWriteEvent writeEvent = new ExcelWorkbookWriteEvent();
+			writeEvent.begin();
 			try (OutputStream fileOut = new FileOutputStream(excelFile)) {		
 			    wb.write(fileOut);
-		        wb.close();
 		        logger.info("Finished creating/updating the Excel file '" + excelFile + "'.");
 			} catch (IOException e) {
 	            logger.error("Could not read Excel file.", e);
 	        }
+			commitWorkbookWriteEvent(writeEvent, excelFile, wb.getNumberOfSheets());
 			
 			/*if(logger.isInfoEnabled() || logger.isDebugEnabled()) {
 				// additional information to print to console
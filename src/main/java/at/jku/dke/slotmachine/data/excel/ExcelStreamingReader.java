@@ -0,0 +1,421 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.UnsupportedFileFormatException;
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.InvalidOperationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import at.jku.dke.slotmachine.data.excel.jfr.ExcelSheetParseEvent;
+
+/**
+ * Reads single sheets of an Excel source file with the XSSF event API (SAX), without
+ * building the workbook in memory. Only the requested sheet is parsed, all other sheets
+ * (e.g. the weight maps of an Excel target file) are skipped.
+ */
+public class ExcelStreamingReader {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final String RELATIONSHIP_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    /**
+     * Read Margins from sheet 'Flights' of the given Excel input file and return them as a list of margins.
+     *
+     * @param fileName location and name of given input file
+     * @return a list of margins
+     */
+    public static List<MarginEntry> readMarginsFromFile(String fileName) {
+        List<MarginEntry> entryList = new LinkedList<MarginEntry>();
+        readMargins(fileName, entryList::add);
+        return entryList;
+    }
+
+    /**
+     * Read Optimizations from sheet 'Optimizations' of the excel source file (without weight maps).
+     *
+     * @param fileName file name of excel source file
+     * @return list of optimizations
+     */
+    public static List<OptimizationEntry> readOptimizationsFromFile(String fileName) {
+        List<OptimizationEntry> entryList = new LinkedList<OptimizationEntry>();
+        readOptimizations(fileName, entryList::add);
+        return entryList;
+    }
+
+    /**
+     * Read Margins from sheet 'Flights' and pass each MarginEntry to the consumer as soon as its row is parsed.
+     *
+     * @param fileName location and name of given input file
+     * @param consumer receives the margins in row order
+     */
+    public static void readMargins(String fileName, Consumer<MarginEntry> consumer) {
+        logger.info("Streaming sheet 'Flights' from Excel file '" + fileName + "'.");
+        logger.info("Reading margins from the file.");
+
+        readSheet(fileName, "Flights", row -> {
+            // information is in row 1 (second row) and below
+            if (row.getRowNum() == 0) {
+                return true;
+            }
+            if (row.getString(0) == null || row.getString(0).equals("")) {
+                return false;
+            }
+            MarginEntry entry = new MarginEntry(
+                row.getString(0),
+                // set seconds and nanoseconds to zero (Excel sometimes adds small values to dates)
+                row.getLocalDateTime(1).withSecond(0).withNano(0),
+                row.getLocalDateTime(2).withSecond(0).withNano(0),
+                row.getLocalDateTime(3).withSecond(0).withNano(0),
+                row.getLocalDateTime(4).withSecond(0).withNano(0),
+                row.getNumeric(5)
+            );
+            consumer.accept(entry);
+            return true;
+        });
+    }
+
+    /**
+     * Read Optimizations from sheet 'Optimizations' and pass each OptimizationEntry to the consumer as soon
+     * as its row is parsed.
+     *
+     * @param fileName file name of excel source file
+     * @param consumer receives the optimizations in row order
+     */
+    public static void readOptimizations(String fileName, Consumer<OptimizationEntry> consumer) {
+        logger.info("Streaming sheet 'Optimizations' from Excel file '" + fileName + "'.");
+        logger.info("Reading optimizations from the excel source file.");
+
+        readSheet(fileName, "Optimizations", row -> {
+            // information is in row 1 (second row) and below
+            if (row.getRowNum() == 0) {
+                return true;
+            }
+            if (row.getString(0) == null) {
+                return false;
+            }
+            String frameworkString = "null";
+            if (row.getString(4) != null) {
+                frameworkString = row.getString(4);
+            }
+            OptimizationEntry entry = new OptimizationEntry(
+                row.getString(0),
+                row.getLocalDateTime(1).withSecond(0).withNano(0),
+                row.getLocalDateTime(2).withSecond(0).withNano(0),
+                (int) row.getNumeric(3),
+                frameworkString,
+                row.getNumeric(5),
+                row.getNumeric(6),
+                row.getNumeric(7)
+            );
+
+            logger.info("OptimizationEntry: " + entry.getOptId() + "\n \t starttime: " +
+                    entry.getStartTime() + " \t endtime: " + entry.getEndTime() +
+                    "\n \t interval: " + entry.getInterval() + " \t framework: " + entry.getOptimizationFramework() +
+                    "\n \t minValue: " + entry.getMinValue() + " \t maxValue: " + entry.getMaxValue());
+
+            consumer.accept(entry);
+            return true;
+        });
+    }
+
+    /**
+     * Check if the Excel file contains a sheet with the given name (only workbook.xml is parsed).
+     *
+     * @param fileName location and name of given input file
+     * @param sheetName name of the sheet
+     * @return true if the sheet exists, otherwise false
+     */
+    public static boolean hasSheet(String fileName, String sheetName) {
+        try (OPCPackage pkg = OPCPackage.open(new File(fileName), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+
+            WorkbookHandler workbookHandler = new WorkbookHandler(sheetName);
+            try (InputStream workbookData = reader.getWorkbookData()) {
+                parse(workbookData, workbookHandler);
+            }
+            return workbookHandler.relationId != null;
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            logger.error("Could not read Excel file.", e);
+        } catch (InvalidOperationException | UnsupportedFileFormatException | POIXMLException e) {
+            // missing file or not an OOXML file
+            logger.error("Could not read Excel file.", e);
+        }
+        return false;
+    }
+
+    /**
+     * Parses the sheet with the given name row by row. Parsing stops at the first missing row
+     * (same as the end of data in ExcelInputReader) or when the handler returns false.
+     *
+     * @param fileName location and name of given input file
+     * @param sheetName name of the sheet, which should be read
+     * @param handler called for every row of the sheet, returns false if no further rows are needed
+     */
+    public static void readSheet(String fileName, String sheetName, RowHandler handler) {
+        ExcelSheetParseEvent event = new ExcelSheetParseEvent();
+        event.begin();
+        int[] rows = new int[1];
+        try (OPCPackage pkg = OPCPackage.open(new File(fileName), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+
+            WorkbookHandler workbookHandler = new WorkbookHandler(sheetName);
+            try (InputStream workbookData = reader.getWorkbookData()) {
+                parse(workbookData, workbookHandler);
+            }
+            if (workbookHandler.relationId == null) {
+                logger.error("Sheet '" + sheetName + "' does not exist in Excel file '" + fileName + "'.");
+                return;
+            }
+
+            SharedStrings sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            try (InputStream sheetData = reader.getSheet(workbookHandler.relationId)) {
+                parse(sheetData, new SheetHandler(sharedStrings, workbookHandler.date1904, row -> {
+                    rows[0]++;
+                    return handler.handleRow(row);
+                }));
+            } catch (StopReadingException e) {
+                // all required rows have been read
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            logger.error("Could not read Excel file.", e);
+        } catch (InvalidOperationException | UnsupportedFileFormatException | POIXMLException e) {
+            // missing file or not an OOXML file
+            logger.error("Could not read Excel file.", e);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.fileName = fileName;
+            event.sheetName = sheetName;
+            event.rows = rows[0];
+            event.bytes = new File(fileName).length();
+            event.commit();
+        }
+    }
+
+    private static void parse(InputStream input, DefaultHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(handler);
+        xmlReader.parse(new InputSource(input));
+    }
+
+    /**
+     * Receives the rows of a streamed sheet.
+     */
+    public interface RowHandler {
+        /**
+         * @param row current row (only valid during this call)
+         * @return true if further rows should be read, otherwise false
+         */
+        boolean handleRow(StreamedRow row);
+    }
+
+    /**
+     * Values of one row of a streamed sheet. Cell values are kept as the raw text of the
+     * sheet XML (shared strings already resolved) and converted on access.
+     */
+    public static class StreamedRow {
+        private int rowNum;
+        private final List<String> values = new ArrayList<String>();
+        private final boolean date1904;
+
+        private StreamedRow(boolean date1904) {
+            this.date1904 = date1904;
+        }
+
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        /**
+         * @param column column index (0-based)
+         * @return value of the cell, "" for an empty cell or null if the cell does not exist
+         */
+        public String getString(int column) {
+            if (column >= values.size()) {
+                return null;
+            }
+            return values.get(column);
+        }
+
+        public double getNumeric(int column) {
+            return Double.parseDouble(getString(column));
+        }
+
+        public LocalDateTime getLocalDateTime(int column) {
+            return DateUtil.getLocalDateTime(getNumeric(column), date1904);
+        }
+
+        private void reset(int rowNum) {
+            this.rowNum = rowNum;
+            values.clear();
+        }
+
+        private void set(int column, String value) {
+            while (values.size() <= column) {
+                values.add(null);
+            }
+            values.set(column, value);
+        }
+    }
+
+    /**
+     * Looks up the relation id of a sheet in workbook.xml and the date system of the workbook.
+     */
+    private static class WorkbookHandler extends DefaultHandler {
+        private final String sheetName;
+        private String relationId;
+        private boolean date1904;
+
+        private WorkbookHandler(String sheetName) {
+            this.sheetName = sheetName;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (localName.equals("sheet") && sheetName.equals(attributes.getValue("name"))) {
+                relationId = attributes.getValue(RELATIONSHIP_NAMESPACE, "id");
+            } else if (localName.equals("workbookPr")) {
+                String value = attributes.getValue("date1904");
+                date1904 = value != null && (value.equals("1") || value.equalsIgnoreCase("true"));
+            }
+        }
+    }
+
+    /**
+     * Collects the cell values of each row of a sheet.xml and hands complete rows to the RowHandler.
+     */
+    private static class SheetHandler extends DefaultHandler {
+        private final SharedStrings sharedStrings;
+        private final RowHandler handler;
+        private final StreamedRow row;
+        private final StringBuilder text = new StringBuilder();
+
+        private int nextRowNum = 0;
+        private int nextColumn = 0;
+        private int currentColumn;
+        private String currentType;
+        private boolean inValue = false;
+        private boolean hasValue = false;
+
+        private SheetHandler(SharedStrings sharedStrings, boolean date1904, RowHandler handler) {
+            this.sharedStrings = sharedStrings;
+            this.handler = handler;
+            this.row = new StreamedRow(date1904);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    int rowNum = r != null ? Integer.parseInt(r) - 1 : nextRowNum;
+                    if (rowNum != nextRowNum) {
+                        // missing row, end of data
+                        throw new StopReadingException();
+                    }
+                    row.reset(rowNum);
+                    nextColumn = 0;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    currentColumn = ref != null ? getColumnIndex(ref) : nextColumn;
+                    nextColumn = currentColumn + 1;
+                    currentType = attributes.getValue("t");
+                    hasValue = false;
+                    text.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    // <t> is used by inline strings (<is><t>...</t></is>)
+                    inValue = true;
+                    hasValue = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "c":
+                    String value = "";
+                    if (hasValue) {
+                        value = text.toString();
+                        if ("s".equals(currentType)) {
+                            value = sharedStrings.getItemAt(Integer.parseInt(value)).getString();
+                        }
+                    }
+                    row.set(currentColumn, value);
+                    break;
+                case "row":
+                    nextRowNum = row.getRowNum() + 1;
+                    if (!handler.handleRow(row)) {
+                        throw new StopReadingException();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                text.append(ch, start, length);
+            }
+        }
+
+        /**
+         * @param ref cell reference (e.g. "AB12")
+         * @return column index (0-based)
+         */
+        private static int getColumnIndex(String ref) {
+            int column = 0;
+            for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+                column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+
+    /**
+     * Thrown by the SheetHandler to skip the remaining part of a sheet.
+     */
+    private static class StopReadingException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private StopReadingException() {
+            super(null, null, false, false);
+        }
+    }
+}
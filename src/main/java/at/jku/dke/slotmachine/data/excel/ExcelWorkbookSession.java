@@ -0,0 +1,159 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import at.jku.dke.slotmachine.data.excel.jfr.ExcelWorkbookOpenEvent;
+
+/**
+ * Opens an Excel file once for all ExcelInputReader and ExcelOutputWriter operations of a command.
+ * The workbook is parsed on first use only and kept in memory together with the entries extracted
+ * from it. Margins and optimizations of a file, whose workbook has not been parsed (yet), are read
+ * with the ExcelStreamingReader.
+ */
+public class ExcelWorkbookSession implements Closeable {
+    private static final Logger logger = LogManager.getLogger();
+
+    private final String fileName;
+    private Workbook workbook;
+    private List<MarginEntry> margins;
+    private List<OptimizationEntry> optimizations;
+    private OptimizationEntry targetOptimization;
+    private FlightRegistry flightRegistry;
+
+    /**
+     * @param fileName location and name of the Excel file (the file is not read before it is needed)
+     */
+    public ExcelWorkbookSession(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns the parsed workbook, the file is parsed at the first call.
+     *
+     * @return workbook of the Excel file
+     * @throws IOException if the file cannot be read
+     */
+    @SuppressWarnings("try")
+    public synchronized Workbook getWorkbook() throws IOException {
+        if (workbook == null) {
+            try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.EXCEL_READ); InputStream input = new FileInputStream(fileName)) {
+                logger.info("Reading Excel file '" + fileName + "'.");
+                ExcelWorkbookOpenEvent event = new ExcelWorkbookOpenEvent();
+                event.begin();
+                workbook = WorkbookFactory.create(input);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.fileName = fileName;
+                    event.bytes = new File(fileName).length();
+                    event.commit();
+                }
+            }
+        }
+        return workbook;
+    }
+
+    /**
+     * @return true if the workbook has already been parsed
+     */
+    public synchronized boolean isWorkbookLoaded() {
+        return workbook != null;
+    }
+
+    /**
+     * @return margins of sheet 'Flights' (read only once)
+     */
+    @SuppressWarnings("try")
+    public synchronized List<MarginEntry> getMargins() {
+        if (margins == null) {
+            try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.EXCEL_READ)) {
+                if (workbook != null) {
+                    margins = ExcelInputReader.readMargins(workbook, fileName);
+                } else {
+                    margins = ExcelStreamingReader.readMarginsFromFile(fileName);
+                }
+            }
+        }
+        return margins;
+    }
+
+    /**
+     * @return margins of sheet 'Flights' indexed by flightId (built only once)
+     */
+    public synchronized FlightRegistry getFlightRegistry() {
+        if (flightRegistry == null) {
+            flightRegistry = FlightRegistry.ofMargins(getMargins());
+        }
+        return flightRegistry;
+    }
+
+    /**
+     * @return optimizations of sheet 'Optimizations' of an excel source file (read only once)
+     */
+    @SuppressWarnings("try")
+    public synchronized List<OptimizationEntry> getOptimizations() {
+        if (optimizations == null) {
+            try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.EXCEL_READ)) {
+                if (workbook != null) {
+                    optimizations = ExcelInputReader.readOptimizations(workbook, fileName);
+                } else {
+                    optimizations = ExcelStreamingReader.readOptimizationsFromFile(fileName);
+                }
+            }
+        }
+        return optimizations;
+    }
+
+    /**
+     * @param optId optimization id
+     * @return optimization of the excel source file with the given id, or null if it does not exist
+     */
+    public OptimizationEntry getOptimization(String optId) {
+        OptimizationEntry opt = null;
+        for (OptimizationEntry o: getOptimizations()) {
+            if (o.getOptId().equals(optId)) {
+                opt = o;
+            }
+        }
+        return opt;
+    }
+
+    /**
+     * @return optimization stored in sheet 'Flights' of an excel target file (read only once)
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized OptimizationEntry getTargetOptimization() throws IOException {
+        if (targetOptimization == null) {
+            targetOptimization = ExcelInputReader.readOptimizationFromTargetFile(getWorkbook());
+        }
+        return targetOptimization;
+    }
+
+    /**
+     * Closes the workbook (if it has been parsed). Changes are not written back to the file.
+     */
+    @Override
+    public synchronized void close() {
+        if (workbook != null) {
+            try {
+                workbook.close();
+            } catch (IOException e) {
+                logger.error("Could not close Excel file '" + fileName + "'.", e);
+            }
+            workbook = null;
+        }
+    }
+}
@@ -6,6 +6,17 @@ public class Flight {
     private String flightId;
     private Instant scheduledTime;
     private int[] weightMap;
+    /**
+     * encoded weight map, if the weight map has not been expanded to weightMap yet
+     */
+    private WeightMap encodedWeightMap;
+    /**
+     * weight function, if the weights are calculated per slot (neither weightMap nor encodedWeightMap are stored)
+     */
+    private WeightFunction weightFunction;
+
+    public Flight() {
+    }
 
     public Flight(String flightId, Instant scheduledTime, int[] weightMap) {
         this.flightId = flightId;
@@ -13,6 +24,24 @@ public class Flight {
         this.weightMap = weightMap;
     }
 
+    /**
+     * Creates a flight with an encoded weight map, which is expanded when getWeightMap is called the first time.
+     */
+    public Flight(String flightId, Instant scheduledTime, WeightMap weightMap) {
+        this.flightId = flightId;
+        this.scheduledTime = scheduledTime;
+        this.encodedWeightMap = weightMap;
+    }
+
+    /**
+     * Creates a flight with a weight function, the weights are calculated when they are used.
+     */
+    public Flight(String flightId, Instant scheduledTime, WeightFunction weightFunction) {
+        this.flightId = flightId;
+        this.scheduledTime = scheduledTime;
+        this.weightFunction = weightFunction;
+    }
+
     public String getFlightId() {
         return flightId;
     }
@@ -29,11 +58,57 @@ public class Flight {
         this.scheduledTime = scheduledTime;
     }
 
+    /**
+     * @return weight of each slot (an encoded weight map or a weight function is expanded and replaced by the
+     *          array, therefore changes of the array are kept)
+     */
     public int[] getWeightMap() {
+        if (weightMap == null && encodedWeightMap != null) {
+            weightMap = encodedWeightMap.toArray();
+            encodedWeightMap = null;
+        } else if (weightMap == null && weightFunction != null) {
+            weightMap = weightFunction.evaluate(new int[weightFunction.getSlotCount()]);
+            weightFunction = null;
+        }
         return weightMap;
     }
 
     public void setWeightMap(int[] weightMap) {
         this.weightMap = weightMap;
+        this.encodedWeightMap = null;
+        this.weightFunction = null;
+    }
+
+    /**
+     * @return encoded weight map, or null if the weight map is stored as array (see getWeightMap)
+     */
+    public WeightMap getEncodedWeightMap() {
+        return encodedWeightMap;
+    }
+
+    public void setEncodedWeightMap(WeightMap encodedWeightMap) {
+        this.encodedWeightMap = encodedWeightMap;
+        this.weightMap = null;
+        this.weightFunction = null;
+    }
+
+    /**
+     * @return weight function, or null if the weight map is stored (see getWeightMap and getEncodedWeightMap)
+     */
+    public WeightFunction getWeightFunction() {
+        return weightFunction;
+    }
+
+    /**
+     * @param slot index of the slot
+     * @return weight of the slot (without expanding an encoded weight map or a weight function)
+     */
+    public int getWeight(int slot) {
+        if (weightMap == null && encodedWeightMap != null) {
+            return encodedWeightMap.get(slot);
+        } else if (weightMap == null && weightFunction != null) {
+            return weightFunction.weight(slot);
+        }
+        return weightMap[slot];
     }
 }
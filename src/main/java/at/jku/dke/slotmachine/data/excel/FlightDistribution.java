@@ -0,0 +1,83 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Distribution of the wished times of the flights over the slots, given as density function over the relative
+ * position of a slot (0 = first slot, 1 = end of the last slot). The flights are assigned to the slots with
+ * cumulative rounding: slot i gets round(F * C(i+1)) - round(F * C(i)) flights, where C is the cumulative
+ * (normalized) density of the slots before i and F the flight count. Therefore the flight count is always met
+ * exactly and the flight map is computed in one pass over the slots (no repair of the flight map).
+ */
+public class FlightDistribution {
+	private final DoubleUnaryOperator density;
+
+	/**
+	 * @param density density (not negative, not necessarily normalized) at the relative position of a slot in [0, 1)
+	 */
+	public FlightDistribution(DoubleUnaryOperator density) {
+		this.density = density;
+	}
+
+	/**
+	 * Creates a distribution with a step density given as table, e.g. 100 entries for the percentiles of the slots
+	 * (the table may have any size).
+	 * @param table density of each part of the slots
+	 * @return distribution with the given density table
+	 */
+	public static FlightDistribution ofTable(double[] table) {
+		double[] values = table.clone();
+		return new FlightDistribution(x -> {
+			int index = (int) (x * values.length);
+			if (index >= values.length) {
+				return values[values.length - 1];
+			}
+			return index <= 0 ? values[0] : values[index];
+		});
+	}
+
+	/**
+	 * @param position relative position of a slot in [0, 1)
+	 * @return density at the position
+	 */
+	public double getDensity(double position) {
+		return density.applyAsDouble(position);
+	}
+
+	/**
+	 * Generates the flight map, stating how many flights have TimeWished in the particular slot.
+	 * @param flightCount amount of flights
+	 * @param slotCount amount of slots
+	 * @return flight map ([0, 2, 0] -> all 2 flights in second slot), the sum is flightCount
+	 */
+	public int[] getFlightMap(int flightCount, int slotCount) {
+		if (slotCount <= 0 || flightCount <= 0) {
+			return new int[0];
+		}
+		double[] weights = new double[slotCount];
+		double sum = 0;
+		for (int i = 0; i < slotCount; i++) {
+			double weight = getDensity((double) i / (double) slotCount);
+			weights[i] = weight > 0 && !Double.isInfinite(weight) ? weight : 0;
+			sum = sum + weights[i];
+		}
+		if (sum <= 0) {
+			// no density at all, therefore the flights are distributed evenly
+			Arrays.fill(weights, 1);
+			sum = slotCount;
+		}
+
+		int[] flightMap = new int[slotCount];
+		double cumulative = 0;
+		int assigned = 0;
+		for (int i = 0; i < slotCount - 1; i++) {
+			cumulative = cumulative + weights[i];
+			int total = (int) Math.min(flightCount, Math.round(cumulative / sum * flightCount));
+			flightMap[i] = total - assigned;
+			assigned = total;
+		}
+		flightMap[slotCount - 1] = flightCount - assigned;
+		return flightMap;
+	}
+}
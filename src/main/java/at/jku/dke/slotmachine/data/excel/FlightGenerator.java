@@ -4,34 +4,178 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import at.jku.dke.slotmachine.data.excel.jfr.WeightMapGenerationEvent;
+
 public class FlightGenerator {
 
 	private static final Logger logger = LogManager.getLogger();
 	
 	/**
-	 * Generates a list of Flight objects with a given margin list and an optimizationEntry
+	 * Generates a list of Flight objects with a given margin list and an optimizationEntry. The weight function
+	 * of each flight is evaluated to a run-length encoded weight map (WeightMap).
 	 * @param margins list of margin entries
 	 * @param opt optimizationEntry object
 	 * @return list of Flight objects
 	 */
+	@SuppressWarnings("try")
 	public static List<Flight> generateFlights(List<MarginEntry> margins, OptimizationEntry opt) {
-		List<Slot> sequence = generateSequenceItems(opt);
-		List<Flight> flights = new LinkedList<Flight>();
+		try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.WEIGHT_GENERATION)) {
+			SlotTimeline slots = opt.getSlotTimeline();
+			List<Flight> flights = new LinkedList<Flight>();
+			
+			for (MarginEntry margin: margins) {
+				String flightId = margin.getFlightId();
+				// uses time zone of vienna to get an Instant from LocalDateTime
+				Instant scheduledTime = margin.getScheduledTime().atZone(ZoneId.of("Europe/Vienna")).toInstant();
+				flights.add(new Flight(flightId, scheduledTime, 
+						generateEncodedWeightMap(margin, WeightFunction.create(margin, slots, opt))));
+			}
+			
+			return flights;
+		}
+	}
+	
+	/**
+	 * Generates a list of Flight objects with a given margin list and an optimizationEntry. The weight maps
+	 * are generated in parallel and stored run-length encoded (WeightMap), the order of the flights is the same 
+	 * as the order of the margins.
+	 * @param margins list of margin entries
+	 * @param opt optimizationEntry object
+	 * @param threads number of threads (1 generates the flights sequentially, 0 or less uses all available processors)
+	 * @return list of Flight objects
+	 */
+	public static List<Flight> generateFlights(List<MarginEntry> margins, OptimizationEntry opt, int threads) {
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		if (threads == 1 || margins.size() < 2) {
+			return generateFlights(margins, opt);
+		}
 		
-		for (MarginEntry margin: margins) {
-			String flightId = margin.getFlightId();
-			// uses time zone of vienna to get an Instant from LocalDateTime
-			Instant scheduledTime = margin.getScheduledTime().atZone(ZoneId.of("Europe/Vienna")).toInstant();
-			int[] weightMap = generateWeightMap(margin, sequence, opt);
-			flights.add(new Flight(flightId, scheduledTime, weightMap));
+		MarginEntry[] marginArray = margins.toArray(new MarginEntry[margins.size()]);
+		
+		logger.info("Generating weight maps of " + marginArray.length + " flights with " + threads + " threads.");
+		Flight[] flightArray = runInPool(threads, () -> generateFlightArray(marginArray, opt));
+		
+		return new LinkedList<Flight>(Arrays.asList(flightArray));
+	}
+	
+	/**
+	 * Generates the flights of each optimization with the same margins. The optimizations and the weight maps of 
+	 * each optimization are generated in parallel (with the same threads).
+	 * @param margins list of margin entries (e.g. of sheet 'Flights', read once for all optimizations)
+	 * @param opts optimizations
+	 * @param threads number of threads (1 generates the flights sequentially, 0 or less uses all available processors)
+	 * @return list of Flight objects for each optimization (same order as the optimizations)
+	 */
+	public static List<List<Flight>> generateFlights(List<MarginEntry> margins, List<OptimizationEntry> opts, int threads) {
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
 		}
+		List<List<Flight>> flightLists = new LinkedList<List<Flight>>();
+		if (opts.size() < 2) {
+			for (OptimizationEntry o: opts) {
+				flightLists.add(generateFlights(margins, o, threads));
+			}
+			return flightLists;
+		}
+		if (threads == 1) {
+			for (OptimizationEntry o: opts) {
+				flightLists.add(generateFlights(margins, o));
+			}
+			return flightLists;
+		}
+		
+		MarginEntry[] marginArray = margins.toArray(new MarginEntry[margins.size()]);
+		OptimizationEntry[] optArray = opts.toArray(new OptimizationEntry[opts.size()]);
+		Flight[][] flightArrays = new Flight[optArray.length][];
+		
+		logger.info("Generating weight maps of " + marginArray.length + " flights for " + optArray.length + 
+				" optimizations with " + threads + " threads.");
+		// the parallel stream of each optimization uses the same pool (nested parallel streams)
+		runInPool(threads, () -> {
+			IntStream.range(0, optArray.length).parallel().forEach(k -> 
+					flightArrays[k] = generateFlightArray(marginArray, optArray[k]));
+			return flightArrays;
+		});
 		
-		return flights;
+		for (Flight[] flightArray: flightArrays) {
+			flightLists.add(new LinkedList<Flight>(Arrays.asList(flightArray)));
+		}
+		return flightLists;
+	}
+	
+	/**
+	 * Generates the flights and their encoded weight maps with parallel streams (of the pool of the calling thread),
+	 * each task writes to its own index, therefore the order of the flights does not change.
+	 */
+	@SuppressWarnings("try")
+	private static Flight[] generateFlightArray(MarginEntry[] marginArray, OptimizationEntry opt) {
+		// CPU time and allocations of the pool threads are added to the call of runInPool (tasks executed by 
+		// the thread of this task are already included)
+		try (PipelineMetrics.Timer timer = PipelineMetrics.startTask(PipelineMetrics.Phase.WEIGHT_GENERATION)) {
+			SlotTimeline slots = opt.getSlotTimeline();
+			Flight[] flightArray = new Flight[marginArray.length];
+			IntStream.range(0, marginArray.length).parallel().forEach(i -> {
+				try (PipelineMetrics.Timer flightTimer = PipelineMetrics.startTask(PipelineMetrics.Phase.WEIGHT_GENERATION)) {
+					MarginEntry margin = marginArray[i];
+					// uses time zone of vienna to get an Instant from LocalDateTime
+					Instant scheduledTime = margin.getScheduledTime().atZone(ZoneId.of("Europe/Vienna")).toInstant();
+					WeightMap weightMap = generateEncodedWeightMap(margin, WeightFunction.create(margin, slots, opt));
+					flightArray[i] = new Flight(margin.getFlightId(), scheduledTime, weightMap);
+				}
+			});
+			return flightArray;
+		}
+	}
+	
+	/**
+	 * Evaluates the weight function of a flight to an encoded weight map.
+	 */
+	private static WeightMap generateEncodedWeightMap(MarginEntry margin, WeightFunction function) {
+		WeightMapGenerationEvent event = new WeightMapGenerationEvent();
+		event.begin();
+		WeightMap weightMap = function.toWeightMap();
+		
+		event.end();
+		if (event.shouldCommit()) {
+			event.flightId = margin.getFlightId();
+			event.slotCount = weightMap.getLength();
+			event.priority = margin.getPriority();
+			event.bytes = (long) weightMap.getEncodedSize() * Integer.BYTES;
+			event.commit();
+		}
+		return weightMap;
+	}
+	
+	/**
+	 * Runs the task in a new pool with the given number of threads and waits for the result.
+	 */
+	@SuppressWarnings("try")
+	private static <T> T runInPool(int threads, Callable<T> task) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.WEIGHT_GENERATION)) {
+			return pool.submit(task).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Generation of weight maps has been interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Could not generate weight maps.", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
 	}
 	
 	/**
@@ -40,20 +184,11 @@ public class FlightGenerator {
 	 * @return list of Slot objects
 	 */
 	public static List<Slot> generateSequenceItems(OptimizationEntry opt) {
-		LocalDateTime startTime = opt.getStartTime();
-		LocalDateTime endTime = opt.getEndTime();
-		int interval = opt.getInterval();
-		
+		// sequence numbers (0, 1, 2, ...) and times of the slots are given by the slot timeline
 		List<Slot> sequence = new LinkedList<Slot>();
-		
-		double totalSeconds = Duration.between(startTime, endTime).toSeconds();
-		
-		// adds elements in sequence with sequence number (0, 1, 2, ...) and
-		// the time of the slot
-		for (int i = 0; i <= totalSeconds; i = i + interval) {
-			sequence.add(new Slot(i/interval, startTime.plusSeconds(i)));
+		for (Slot s: opt.getSlotTimeline()) {
+			sequence.add(s);
 		}
-		
 		return sequence;
 	}
 	
@@ -65,114 +200,85 @@ public class FlightGenerator {
 	 * @return integer array with the generated weight map
 	 */
 	public static int[] generateWeightMap(MarginEntry margin, List<Slot> sequence, OptimizationEntry opt) {
-		List<Double> weightMapList = new LinkedList<Double>();
-		
+		return generateWeightMap(margin, getSlotOffsets(sequence, opt), opt);
+	}
+	
+	/**
+	 * Calculates the time of each slot as offset (in seconds) to the start time of the optimization. The offsets
+	 * can be used for all weight maps of the optimization (see generateWeightMap(MarginEntry, long[], OptimizationEntry)).
+	 * @param sequence contains information about the possible slots
+	 * @param opt contains information about the start time of the slots
+	 * @return offsets in seconds (same order as sequence)
+	 */
+	public static long[] getSlotOffsets(List<Slot> sequence, OptimizationEntry opt) {
 		LocalDateTime timeSlotBegin = opt.getStartTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime();
-		LocalDateTime timeSlotEnd = opt.getEndTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime();
-		
-		// calculate time durations between slot-begin-time and scheduledTime/TimeNotBefore/...
-		// value can be negative or positive, Math.abs is not useful here with this cost function
-		int intScheduledTime = (int) Duration.between(timeSlotBegin, margin.getScheduledTime()).toSeconds();
-		if (intScheduledTime >= 0) { //for current requirements
-			intScheduledTime = 0;
-		}
-		int intTimeNotBefore = (int) Duration.between(timeSlotBegin, margin.getTimeNotBefore()).toSeconds();
-		if (intTimeNotBefore < 0) {
-			intTimeNotBefore = 0;
-		}
-		int intTimeNotAfter = (int) Duration.between(timeSlotBegin, margin.getTimeNotAfter()).toSeconds();
-		if (intTimeNotAfter < 0) {
-			intTimeNotAfter = 0;
-		}
-		int intTimeWished = (int) Duration.between(timeSlotBegin, margin.getTimeWished()).toSeconds();
-		if (intTimeWished < 0) {
-			intTimeWished = 0;
-		}
-		int intSlotBegin = (int) Duration.between(timeSlotBegin, timeSlotBegin).toSeconds(); // always 0
-		int intSlotEnd = (int) Duration.between(timeSlotBegin, timeSlotEnd).toSeconds();
-		
-		if (margin.getTimeNotBefore().isAfter(margin.getTimeWished()) 
-				|| margin.getTimeWished().isAfter(margin.getTimeNotAfter())) {
-			logger.info("TimeNotBefore must be before TimeWished and/or TimeWished must be before TimeNotAfter! " +
-					"Therefore, Weight Map for flight " + margin.getFlightId() + " could have wrong values!");
-		}
-		
-		for (Slot s: sequence) {
-			double x = Math.abs(Duration.between(timeSlotBegin, s.getTime()).toSeconds());
-			
-			// before ScheduledTime, currently unused
-			if (s.getTime().isBefore(margin.getScheduledTime())) {
-				weightMapList.add(opt.getMinValue());
-			// between ScheduledTime/SlotBegin (incl.) and TimeNotBefore (excl.)
-			//		value at ScheduledTime or SlotStart = minValue
-			//		value at TimeNotBefore = 0
-			} else if (s.getTime().isBefore(margin.getTimeNotBefore()) 
-					&& !(s.getTime().isBefore(margin.getScheduledTime())) ||
-				(s.getTime().isBefore(margin.getTimeNotBefore()) && intScheduledTime == 0)) {
-				double currentWeight = opt.getMinValue();
-				// f(x) = k*x + minValue - k
-				// k = (0 - minValue)/(TimeNotBefore-ScheduledTime) ODER (0 - minValue)/(TimeNotBefore - SlotBegin)
-				double k = ((0 - opt.getMinValue())/(intTimeNotBefore - 0));
-				if (intScheduledTime > 0) { //if ScheduledTime is after SlotBegin
-					k = (Math.abs(opt.getMinValue())/(intTimeNotBefore - 0));
-				}
-				currentWeight = k * x + opt.getMinValue() - k;
-				if (currentWeight < opt.getMinValue()) {
-					currentWeight = opt.getMinValue();
-				}
-				weightMapList.add(currentWeight);
-			// between TimeNotBefore (incl.) and TimeWished (excl.)
-			//		value at TimeNotBefore = dropValue
-			//		value at TimeNotBefore = maxValue
-			} else if (s.getTime().isBefore(margin.getTimeWished()) 
-					&& !(s.getTime().isBefore(margin.getTimeNotBefore()))) {
-				double currentWeight = opt.getMinValue();
-				// f(x) = k*x + d
-				// k = (maxValue - dropValue)/(TimeWished - TimeNotBefore)
-				double k = (opt.getMaxValue() - opt.getDropValue())/(intTimeWished - intTimeNotBefore);
-				currentWeight = (k * x) + opt.getDropValue() - (k * intTimeNotBefore);
-				weightMapList.add(currentWeight);
-			// between TimeWished (incl.) and TimeNotAfter (incl.)
-			//		value at TimeWished = maxValue
-			//		value at TimeNotAfter = dropValue
-			} else if (s.getTime().isBefore(margin.getTimeNotAfter()) 
-					&& !(s.getTime().isBefore(margin.getTimeWished()))) {
-				double currentWeight = opt.getMinValue();
-				// f(x) = k*x + d
-				// k = (dropValue - maxValue)/(TimeNotAfter - TimeWished)
-				double k = (opt.getDropValue() - opt.getMaxValue())/(intTimeNotAfter - intTimeWished);
-				currentWeight = (k * x) + opt.getMaxValue() - (k * intTimeWished);
-				weightMapList.add(currentWeight);
-			// between TimeNotAfter (incl.) and SlotEnd (incl.)
-			//		value at TimeNotAfter = 0
-			//		value at SlotEnd = minValue
-			} else if (!(s.getTime().isBefore(margin.getTimeNotAfter()))) {
-				double currentWeight = opt.getMinValue();
-				// f(x) = k*x + d
-				// k = (minValue - 0)/(SlotEnd - TimeNotAfter)
-				double k = (opt.getMinValue())/(intSlotEnd - intTimeNotAfter);
-				currentWeight = (k * x) + opt.getMinValue() - (k * intSlotEnd);
-				if (currentWeight < opt.getMinValue()) {
-					currentWeight = opt.getMinValue();
-				}
-				weightMapList.add(currentWeight);
-			} else {
-				weightMapList.add(opt.getMinValue());
-			}
-		}
-		
-		// convert used list to an array and multiply values by priority
-		int[] weightMap = new int[weightMapList.size()];
+		long[] slotOffsets = new long[sequence.size()];
 		int i = 0;
-		for (double value: weightMapList) {
-			if (margin.getPriority() != 1) {
-				weightMap[i] = (int) (value * margin.getPriority());
-			} else {
-				weightMap[i] = (int) value;
-			}
+		for (Slot s: sequence) {
+			slotOffsets[i] = Duration.between(timeSlotBegin, s.getTime()).toSeconds();
 			i++;
 		}
+		return slotOffsets;
+	}
+	
+	/**
+	 * Calculates the time of each slot as offset (in seconds) to the start time of the optimization 
+	 * (see getSlotOffsets(List, OptimizationEntry)), without creating Slot objects.
+	 * @param slots slots of the optimization
+	 * @param opt contains information about the start time of the slots
+	 * @return offsets in seconds (same order as slots)
+	 */
+	public static long[] getSlotOffsets(SlotTimeline slots, OptimizationEntry opt) {
+		LocalDateTime timeSlotBegin = opt.getStartTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime();
+		long beginSecond = timeSlotBegin.toEpochSecond(ZoneOffset.UTC);
+		// Duration.toSeconds rounds down, if the slots have a lower nano-of-second than the begin
+		if (slots.getNanoOfSecond() < timeSlotBegin.getNano()) {
+			beginSecond++;
+		}
+		long[] slotOffsets = new long[slots.size()];
+		for (int i = 0; i < slotOffsets.length; i++) {
+			slotOffsets[i] = slots.getEpochSecond(i) - beginSecond;
+		}
+		return slotOffsets;
+	}
+	
+	/**
+	 * Generates the weight maps according to the margins, min-/max-values and priority-value.
+	 * @param margin contains information about the margins per flight
+	 * @param slotOffsets time of each slot as offset in seconds to the start time of the optimization (see getSlotOffsets)
+	 * @param opt contains information about slots, min-/max value and priority-value
+	 * @return integer array with the generated weight map
+	 */
+	public static int[] generateWeightMap(MarginEntry margin, long[] slotOffsets, OptimizationEntry opt) {
+		return generateWeightMap(margin, slotOffsets, opt, new int[slotOffsets.length]);
+	}
+	
+	/**
+	 * Generates the weight maps according to the margins, min-/max-values and priority-value. The weights are 
+	 * written to the given buffer, no objects are created per slot.
+	 * @param margin contains information about the margins per flight
+	 * @param slotOffsets time of each slot as offset in seconds to the start time of the optimization (see getSlotOffsets)
+	 * @param opt contains information about slots, min-/max value and priority-value
+	 * @param weightMap buffer for the weight map (at least as long as slotOffsets)
+	 * @return weightMap filled with the generated weights
+	 */
+	public static int[] generateWeightMap(MarginEntry margin, long[] slotOffsets, OptimizationEntry opt, int[] weightMap) {
+		WeightMapGenerationEvent event = new WeightMapGenerationEvent();
+		event.begin();
+		// the same cost function as WeightFunction, evaluated at the given slot times
+		WeightFunction function = new WeightFunction(margin, null, opt);
+		for (int i = 0; i < slotOffsets.length; i++) {
+			weightMap[i] = function.weightAtOffset(slotOffsets[i]);
+		}
 		
+		event.end();
+		if (event.shouldCommit()) {
+			event.flightId = margin.getFlightId();
+			event.slotCount = slotOffsets.length;
+			event.priority = margin.getPriority();
+			event.bytes = (long) slotOffsets.length * Integer.BYTES;
+			event.commit();
+		}
 		return weightMap;
 	}
 	
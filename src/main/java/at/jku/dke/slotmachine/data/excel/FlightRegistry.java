@@ -0,0 +1,84 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of flights by flightId (row index in sheet 'Flights' and MarginEntry), so that flights
+ * and margins can be joined without nested loops. If a flightId is added more than once, the last entry
+ * is used (the same as the previous loops over all entries did).
+ */
+public class FlightRegistry {
+	private final Map<String, Integer> rowIndexes = new HashMap<String, Integer>();
+	private final Map<String, MarginEntry> margins = new HashMap<String, MarginEntry>();
+
+	/**
+	 * @param marginList list of margins (e.g. of sheet 'Flights' of an excel source file)
+	 * @return registry with the margins and their row index in sheet 'Flights' (first margin is at row 1)
+	 */
+	public static FlightRegistry ofMargins(Iterable<MarginEntry> marginList) {
+		FlightRegistry registry = new FlightRegistry();
+		int row = 1;
+		for (MarginEntry me: marginList) {
+			if (me != null) {
+				registry.addMargin(me);
+				registry.addRow(me.getFlightId(), row);
+			}
+			row++;
+		}
+		return registry;
+	}
+
+	/**
+	 * @param flightId flightId
+	 * @param rowIndex index of the row of the flight in sheet 'Flights'
+	 */
+	public void addRow(String flightId, int rowIndex) {
+		rowIndexes.put(flightId, rowIndex);
+	}
+
+	public void addMargin(MarginEntry margin) {
+		margins.put(margin.getFlightId(), margin);
+	}
+
+	/**
+	 * @param flightId flightId
+	 * @return index of the row of the flight in sheet 'Flights', or -1 if the flight is unknown
+	 */
+	public int getRowIndex(String flightId) {
+		Integer rowIndex = rowIndexes.get(flightId);
+		return rowIndex != null ? rowIndex : -1;
+	}
+
+	/**
+	 * @param flightId flightId
+	 * @return margins of the flight, or null if the flight is unknown
+	 */
+	public MarginEntry getMargin(String flightId) {
+		return margins.get(flightId);
+	}
+
+	/**
+	 * Joins the flights with the margins of this registry to the margins of the generated JSON file.
+	 * @param flightArray flights (e.g. of an OptimizationSessionEntry)
+	 * @return margins (same order as the flights, flights without margins are skipped)
+	 */
+	public List<MarginInfo> getMarginInfos(Flight[] flightArray) {
+		List<MarginInfo> marginInfos = new LinkedList<MarginInfo>();
+		for (Flight f: flightArray) {
+			MarginEntry me = margins.get(f.getFlightId());
+			if (me != null && me.getTimeNotAfter() != null) {
+				marginInfos.add(new MarginInfo(
+						me.getScheduledTime().atZone(ZoneId.of("Europe/Vienna")).toInstant(),
+						me.getTimeNotBefore().atZone(ZoneId.of("Europe/Vienna")).toInstant(),
+						me.getTimeWished().atZone(ZoneId.of("Europe/Vienna")).toInstant(),
+						me.getTimeNotAfter().atZone(ZoneId.of("Europe/Vienna")).toInstant(),
+						f.getFlightId()));
+			}
+		}
+		return marginInfos;
+	}
+}
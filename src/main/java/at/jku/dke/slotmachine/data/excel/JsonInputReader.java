@@ -1,15 +1,13 @@
 package at.jku.dke.slotmachine.data.excel;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.json.JsonMapper;
 
 import at.jku.dke.slotmachine.data.excel.dto.TestDataConfigDTO;
 
@@ -17,15 +15,15 @@ public class JsonInputReader {
     private static final Logger logger = LogManager.getLogger();
 
     /**
-     * Used to read flight sequences from json files
+     * Used to read flight sequences from json files (or Smile files with the extension '.smile',
+     * both may be compressed, e.g. '.json.gz' or '.json.zst')
      * @param fileName json file name/location
      * @return returns a FlightSequenceEntry-Object
      */
     public static FlightSequenceEntry readFlightSequenceFromFile(String fileName) {
     	logger.info("Reading JSON file from '" + fileName + "'.");
-    	ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
-    	try {
-			FlightSequenceEntry flightSequenceEntry = mapper.readValue(new File(fileName), FlightSequenceEntry.class);
+    	try (InputStream in = CompressedFileStreams.newInputStream(fileName)) {
+			FlightSequenceEntry flightSequenceEntry = JsonMappers.getReader(FlightSequenceEntry.class, fileName).readValue(in);
 			logger.info("FlightSequenceEntry sucessfully created from JSON file.");
 			return flightSequenceEntry;
 		} catch (JsonParseException e) {
@@ -42,9 +40,8 @@ public class JsonInputReader {
 
 	public static TestDataConfigDTO readTestDataConfigDTO(String fileName) {
     	logger.info("Reading JSON file from '" + fileName + "'.");
-    	ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
-    	try {
-    		TestDataConfigDTO testDataConfigDTO = mapper.readValue(new File(fileName), TestDataConfigDTO.class);
+    	try (InputStream in = CompressedFileStreams.newInputStream(fileName)) {
+    		TestDataConfigDTO testDataConfigDTO = JsonMappers.getReader(TestDataConfigDTO.class, fileName).readValue(in);
 			logger.info("TestDataConfigDTO sucessfully created from JSON file.");
 			return testDataConfigDTO;
 		} catch (JsonParseException e) {
@@ -58,4 +55,40 @@ public class JsonInputReader {
 			return null;
 		}
 	}
+
+	/**
+	 * Used to read sessions (e.g. written by the conversion of margins) from json files
+	 * (or Smile files with the extension '.smile', both may be compressed)
+	 * @param fileName json file name/location
+	 * @return returns an OptimizationSessionEntry-Object, or null if the file cannot be read
+	 */
+	public static OptimizationSessionEntry readOptimizationSessionEntryFromFile(String fileName) {
+		logger.info("Reading JSON file from '" + fileName + "'.");
+		try (InputStream in = CompressedFileStreams.newInputStream(fileName)) {
+			OptimizationSessionEntry ose = JsonMappers.getReader(OptimizationSessionEntry.class, fileName).readValue(in);
+			logger.info("OptimizationSessionEntry sucessfully created from JSON file.");
+			return ose;
+		} catch (IOException e) {
+			logger.error("Cannot read JSON file '" + fileName + "'.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Used to read sessions with parameters from json files (or Smile files with the extension '.smile',
+	 * both may be compressed)
+	 * @param fileName json file name/location
+	 * @return returns an OptimizationSessionEntryAdvanced-Object, or null if the file cannot be read
+	 */
+	public static OptimizationSessionEntryAdvanced readOptimizationSessionEntryAdvancedFromFile(String fileName) {
+		logger.info("Reading JSON file from '" + fileName + "'.");
+		try (InputStream in = CompressedFileStreams.newInputStream(fileName)) {
+			OptimizationSessionEntryAdvanced osea = JsonMappers.getReader(OptimizationSessionEntryAdvanced.class, fileName).readValue(in);
+			logger.info("OptimizationSessionEntryAdvanced sucessfully created from JSON file.");
+			return osea;
+		} catch (IOException e) {
+			logger.error("Cannot read JSON file '" + fileName + "'.", e);
+			return null;
+		}
+	}
 }
@@ -0,0 +1,185 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Shared Jackson configuration for JsonOutputWriter and JsonInputReader. The mapper (with the modules found
+ * on the classpath) is built once per process, readers and writers are created once per type and reused, so
+ * that the serializer caches of Jackson are kept. ObjectMapper, ObjectReader and ObjectWriter are thread-safe.
+ * Files with the extension '.smile' are written and read with the binary Smile format (same data model as JSON),
+ * all other files as JSON. Both may be compressed (e.g. '.json.gz', '.json.zst', see CompressedFileStreams).
+ * The weight maps of flights are read as WeightMap in both forms (array or run-length encoded object).
+ */
+public final class JsonMappers {
+    public static final String JSON_EXTENSION = ".json";
+    public static final String SMILE_EXTENSION = ".smile";
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder().findAndAddModules()
+            .addModule(createWeightMapModule()).addMixIn(Flight.class, FlightMixIn.class).build();
+    private static final ObjectMapper SMILE_MAPPER = SmileMapper.builder().findAndAddModules()
+            .addModule(createWeightMapModule()).addMixIn(Flight.class, FlightMixIn.class).build();
+
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+    private static final Map<Class<?>, ObjectWriter> COMPACT_WRITERS = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<Class<?>, ObjectReader>();
+    private static final Map<Class<?>, ObjectWriter> SMILE_WRITERS = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+    private static final Map<Class<?>, ObjectReader> SMILE_READERS = new ConcurrentHashMap<Class<?>, ObjectReader>();
+
+    private JsonMappers() {
+    }
+
+    private static Module createWeightMapModule() {
+        return new SimpleModule("WeightMapModule").addDeserializer(WeightMap.class, new WeightMapDeserializer());
+    }
+
+    /**
+     * Annotations of Flight: the weight map is written as array (getWeightMap expands an encoded weight map
+     * or a weight function)
+     * and read as encoded weight map (setEncodedWeightMap, see WeightMapDeserializer).
+     */
+    abstract static class FlightMixIn {
+        @JsonProperty("weightMap")
+        abstract int[] getWeightMap();
+
+        @JsonIgnore
+        abstract void setWeightMap(int[] weightMap);
+
+        @JsonIgnore
+        abstract WeightMap getEncodedWeightMap();
+
+        @JsonIgnore
+        abstract WeightFunction getWeightFunction();
+
+        @JsonProperty("weightMap")
+        abstract void setEncodedWeightMap(WeightMap encodedWeightMap);
+    }
+
+    /**
+     * @return shared mapper (must not be reconfigured)
+     */
+    public static ObjectMapper getMapper() {
+        return MAPPER;
+    }
+
+    /**
+     * @return shared mapper for the binary Smile format (must not be reconfigured)
+     */
+    public static ObjectMapper getSmileMapper() {
+        return SMILE_MAPPER;
+    }
+
+    /**
+     * @param fileName name of file
+     * @return shared mapper for the format of the file (Smile for '.smile', otherwise JSON)
+     */
+    public static ObjectMapper getMapper(String fileName) {
+        return isSmileFile(fileName) ? SMILE_MAPPER : MAPPER;
+    }
+
+    /**
+     * @param fileName name of file
+     * @return true, if the file is written/read with the binary Smile format
+     */
+    public static boolean isSmileFile(String fileName) {
+        return fileName != null &&
+                CompressedFileStreams.removeCompressionExtension(fileName).toLowerCase().endsWith(SMILE_EXTENSION);
+    }
+
+    /**
+     * @param fileName name of file
+     * @return true, if the file is a JSON or Smile file
+     */
+    public static boolean isSessionFile(String fileName) {
+        return getExtension(fileName) != null;
+    }
+
+    /**
+     * @param fileName name of file
+     * @return extension of the JSON or Smile file including the compression (e.g. '.json' or '.json.gz'),
+     *          or null if the file is neither JSON nor Smile
+     */
+    public static String getExtension(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        String compression = CompressedFileStreams.getCompressionExtension(fileName);
+        String lowerCaseName = CompressedFileStreams.removeCompressionExtension(fileName).toLowerCase();
+        if (lowerCaseName.endsWith(JSON_EXTENSION)) {
+            return fileName.substring(fileName.length() - JSON_EXTENSION.length() - compression.length());
+        } else if (lowerCaseName.endsWith(SMILE_EXTENSION)) {
+            return fileName.substring(fileName.length() - SMILE_EXTENSION.length() - compression.length());
+        }
+        return null;
+    }
+
+    /**
+     * @param fileName name of file
+     * @return name of file without the extension '.json' or '.smile' and the compression (unchanged if it has
+     *          neither extension)
+     */
+    public static String removeExtension(String fileName) {
+        String extension = getExtension(fileName);
+        return extension == null ? fileName : fileName.substring(0, fileName.length() - extension.length());
+    }
+
+    /**
+     * @param type type of the objects, which are written
+     * @return writer with pretty printer for the given type
+     */
+    public static ObjectWriter getWriter(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, t -> MAPPER.writerFor(t).with(new DefaultPrettyPrinter()));
+    }
+
+    /**
+     * @param type type of the objects, which are written
+     * @return writer without any whitespace for the given type
+     */
+    public static ObjectWriter getCompactWriter(Class<?> type) {
+        return COMPACT_WRITERS.computeIfAbsent(type, t -> MAPPER.writerFor(t));
+    }
+
+    /**
+     * @param type type of the objects, which are written
+     * @param fileName name of file
+     * @param compact true to write JSON without whitespace, false to pretty print (Smile is always compact)
+     * @return writer for the given type and the format of the file
+     */
+    public static ObjectWriter getWriter(Class<?> type, String fileName, boolean compact) {
+        if (isSmileFile(fileName)) {
+            return SMILE_WRITERS.computeIfAbsent(type, t -> SMILE_MAPPER.writerFor(t));
+        }
+        return compact ? getCompactWriter(type) : getWriter(type);
+    }
+
+    /**
+     * @param type type of the objects, which are read
+     * @return reader for the given type
+     */
+    public static ObjectReader getReader(Class<?> type) {
+        return READERS.computeIfAbsent(type, t -> MAPPER.readerFor(t));
+    }
+
+    /**
+     * @param type type of the objects, which are read
+     * @param fileName name of file
+     * @return reader for the given type and the format of the file
+     */
+    public static ObjectReader getReader(Class<?> type, String fileName) {
+        if (isSmileFile(fileName)) {
+            return SMILE_READERS.computeIfAbsent(type, t -> SMILE_MAPPER.readerFor(t));
+        }
+        return getReader(type);
+    }
+}
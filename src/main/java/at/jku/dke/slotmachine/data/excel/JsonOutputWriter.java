@@ -1,15 +1,15 @@
 package at.jku.dke.slotmachine.data.excel;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+
+import at.jku.dke.slotmachine.data.excel.jfr.JsonWriteEvent;
 
 public class JsonOutputWriter {
     private static final Logger logger = LogManager.getLogger();
@@ -18,30 +18,87 @@ public class JsonOutputWriter {
      * Writes content of object to file
      * @param fileName name of file, which is created/updated
      * @param object object, which is used as the content for the file
+     * @return true if the file has been written, false if the error has been logged
      */
-    public static void writeToFile(String fileName, Object object) {
-        ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+    public static boolean writeToFile(String fileName, Object object) {
+        return writeToFile(fileName, object, false);
+    }
 
-        ObjectWriter writer = mapper.writer(new DefaultPrettyPrinter());
+    /**
+     * Writes content of object to file. Sessions (OptimizationSessionEntry, OptimizationSessionEntryAdvanced)
+     * are written flight by flight with the SessionJsonWriter. Files with the extension '.smile' are written with
+     * the binary Smile format, files with the extension '.gz' or '.zst' (e.g. 'session.json.gz') are compressed.
+     * @param fileName name of file, which is created/updated
+     * @param object object, which is used as the content for the file
+     * @param compact true to write without whitespace, false to pretty print
+     * @return true if the file has been written, false if the error has been logged
+     */
+    public static boolean writeToFile(String fileName, Object object, boolean compact) {
+        return writeToFile(fileName, object, compact, false);
+    }
 
-        try {
-            File file = new File(fileName);
-            writer.writeValue(file, object);
+    /**
+     * Writes content of object to file (see writeToFile(String, Object, boolean)).
+     * @param fileName name of file, which is created/updated
+     * @param object object, which is used as the content for the file
+     * @param compact true to write without whitespace, false to pretty print
+     * @param sparse true to write the weight maps of sessions run-length encoded (see SessionJsonWriter)
+     * @return true if the file has been written, false if the error has been logged (the file may be incomplete)
+     */
+    public static boolean writeToFile(String fileName, Object object, boolean compact, boolean sparse) {
+        JsonWriteEvent event = new JsonWriteEvent();
+        event.begin();
+        boolean written = write(fileName, object, compact, sparse);
+        event.end();
+        if (event.shouldCommit()) {
+            event.fileName = fileName;
+            event.type = object.getClass().getSimpleName();
+            if (object instanceof OptimizationSessionEntry) {
+                OptimizationSessionEntry optSE = (OptimizationSessionEntry) object;
+                event.flights = optSE.getFlights() != null ? optSE.getFlights().length : 0;
+                event.slotCount = optSE.getSlots() != null ? optSE.getSlots().length : 0;
+            } else if (object instanceof OptimizationSessionEntryAdvanced) {
+                OptimizationSessionEntryAdvanced optSE = (OptimizationSessionEntryAdvanced) object;
+                event.flights = optSE.getFlights() != null ? optSE.getFlights().length : 0;
+                event.slotCount = optSE.getSlots() != null ? optSE.getSlots().length : 0;
+            }
+            event.bytes = new File(fileName).length();
+            event.commit();
+        }
+        return written;
+    }
+
+    @SuppressWarnings("try")
+    private static boolean write(String fileName, Object object, boolean compact, boolean sparse) {
+        if (object instanceof OptimizationSessionEntry) {
+            try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.JSON_WRITE)) {
+                return SessionJsonWriter.writeToFile(fileName, (OptimizationSessionEntry) object, compact, sparse);
+            }
+        } else if (object instanceof OptimizationSessionEntryAdvanced) {
+            try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.JSON_WRITE)) {
+                return SessionJsonWriter.writeToFile(fileName, (OptimizationSessionEntryAdvanced) object, compact, sparse);
+            }
+        }
+        ObjectWriter writer = JsonMappers.getWriter(object.getClass(), fileName, compact);
+
+        try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.JSON_WRITE); OutputStream out = CompressedFileStreams.newOutputStream(fileName)) {
+            writer.writeValue(out, object);
             logger.info("Writing information to file '" + fileName + "'.");
         } catch (IOException e) {
             logger.error("Cannot write JSON to file '" + fileName + "'.", e);
+            return false;
         }
+        return true;
     }
     
     /**
      * Stores the content to a String object
      * @param object object, which contains the content
      */
+    @SuppressWarnings("try")
     public static String writeToString(Object object) {
-        ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
-
-        try {
-			return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(object);
+        try (PipelineMetrics.Timer timer = PipelineMetrics.start(PipelineMetrics.Phase.JSON_WRITE)) {
+			return JsonMappers.getWriter(object.getClass()).writeValueAsString(object);
 		} catch (JsonProcessingException e) {
 			logger.error("Cannot process object.");
 			e.printStackTrace();
@@ -23,6 +23,10 @@ public class OptimizationEntry {
      *  TimeNotBefore could be 0 and at TimeNotBefore it could be 60 then)
      */
     private double dropValue;
+    /**
+     * times of the slots, created at first use
+     */
+    private SlotTimeline slotTimeline;
 
     public OptimizationEntry(String optId, LocalDateTime startTime, LocalDateTime endTime, int interval, String optimizationFramework,
     		double minValue, double maxValue, double dropValue) {
@@ -67,4 +71,14 @@ public class OptimizationEntry {
     	return dropValue;
     }
     
+    /**
+     * @return slots of this optimization (created once and reused)
+     */
+    public synchronized SlotTimeline getSlotTimeline() {
+    	if (slotTimeline == null) {
+    		slotTimeline = new SlotTimeline(this);
+    	}
+    	return slotTimeline;
+    }
+    
 }
@@ -0,0 +1,241 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wall time, CPU time and allocated bytes of the phases of a run of ExcelIO (option -metrics): reading Excel
+ * files, generating weight maps, writing Excel files and writing JSON files. The phases are measured with
+ * timers in ExcelInputReader, FlightGenerator, ExcelOutputWriter and JsonOutputWriter, which do nothing unless
+ * the metrics are enabled. CPU time and allocated bytes are measured per thread (ThreadMXBean), work of pool
+ * threads is added to the phase of the call with task timers. Nested timers on the same thread are ignored,
+ * therefore the time of a nested phase is counted for the outer phase (e.g. margins read while writing the
+ * weights are counted for EXCEL_WRITE). The wall time of a phase is the sum of the durations of its calls,
+ * which can be greater than the wall time of the run if calls are executed in parallel.
+ */
+public class PipelineMetrics {
+    public enum Phase {
+        EXCEL_READ, WEIGHT_GENERATION, EXCEL_WRITE, JSON_WRITE
+    }
+
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private static final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    private static final boolean cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported();
+    private static final boolean allocationSupported = threadBean instanceof com.sun.management.ThreadMXBean &&
+            ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported();
+
+    private static final Timer NO_TIMER = new Timer(null, null, false);
+    private static final ThreadLocal<Timer> activeTimer = new ThreadLocal<Timer>();
+    private static volatile PipelineMetrics current;
+
+    private final PhaseMetrics[] phases = new PhaseMetrics[Phase.values().length];
+    private final long startNanos;
+    private final long startProcessCpuNanos;
+    private long wallNanos;
+    private long processCpuNanos;
+
+    private PipelineMetrics() {
+        for (Phase phase: Phase.values()) {
+            phases[phase.ordinal()] = new PhaseMetrics(phase);
+        }
+        startNanos = System.nanoTime();
+        startProcessCpuNanos = getProcessCpuTime();
+    }
+
+    /**
+     * Starts recording the phases (replaces metrics which have been enabled before).
+     * @return metrics of the run
+     */
+    public static PipelineMetrics enable() {
+        if (allocationSupported) {
+            ((com.sun.management.ThreadMXBean) threadBean).setThreadAllocatedMemoryEnabled(true);
+        }
+        if (cpuTimeSupported) {
+            threadBean.setThreadCpuTimeEnabled(true);
+        }
+        current = new PipelineMetrics();
+        return current;
+    }
+
+    /**
+     * Stops recording the phases.
+     * @return metrics of the run (with wall and CPU time of the run), or null if the metrics have not been enabled
+     */
+    public static PipelineMetrics disable() {
+        PipelineMetrics metrics = current;
+        current = null;
+        if (metrics != null) {
+            metrics.wallNanos = System.nanoTime() - metrics.startNanos;
+            metrics.processCpuNanos = getProcessCpuTime() - metrics.startProcessCpuNanos;
+        }
+        return metrics;
+    }
+
+    /**
+     * Starts a timer for a call of the phase, use it with try-with-resources.
+     * @param phase phase of the call
+     * @return timer, which records the call when it is closed (does nothing if the metrics are disabled or
+     *          another timer is active on this thread)
+     */
+    public static Timer start(Phase phase) {
+        return start(phase, true);
+    }
+
+    /**
+     * Starts a timer for a task of a call of the phase, which is executed by another thread (e.g. a weight map
+     * generated by a pool thread). Only CPU time and allocated bytes are recorded, the wall time is recorded by
+     * the timer of the call.
+     * @param phase phase of the call
+     * @return timer, which records the task when it is closed
+     */
+    public static Timer startTask(Phase phase) {
+        return start(phase, false);
+    }
+
+    private static Timer start(Phase phase, boolean call) {
+        PipelineMetrics metrics = current;
+        if (metrics == null || activeTimer.get() != null) {
+            return NO_TIMER;
+        }
+        Timer timer = new Timer(metrics.phases[phase.ordinal()], metrics, call);
+        activeTimer.set(timer);
+        return timer;
+    }
+
+    private static long getCurrentThreadCpuTime() {
+        return cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long getCurrentThreadAllocatedBytes() {
+        return allocationSupported ? ((com.sun.management.ThreadMXBean) threadBean).getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private static long getProcessCpuTime() {
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            return Math.max(0, ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime());
+        }
+        return 0;
+    }
+
+    /**
+     * @return wall time of the run in milliseconds
+     */
+    public double getWallMillis() {
+        return wallNanos / 1e6;
+    }
+
+    /**
+     * @return CPU time of the process (all threads, including JIT compiler and garbage collector) during the run
+     *          in milliseconds
+     */
+    public double getProcessCpuMillis() {
+        return processCpuNanos / 1e6;
+    }
+
+    public List<PhaseMetrics> getPhases() {
+        List<PhaseMetrics> phaseList = new LinkedList<PhaseMetrics>();
+        for (PhaseMetrics phase: phases) {
+            phaseList.add(phase);
+        }
+        return phaseList;
+    }
+
+    /**
+     * @return summary table with one row per phase and the wall and CPU time of the run
+     */
+    public String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-18s %8s %12s %12s %14s%n", "phase", "calls", "wall ms", "cpu ms", "allocated MB"));
+        for (PhaseMetrics phase: phases) {
+            table.append(String.format("%-18s %8d %12.1f %12.1f %14.1f%n", phase.getPhase(), phase.getCalls(),
+                    phase.getWallMillis(), phase.getCpuMillis(), phase.getAllocatedBytes() / (1024.0 * 1024.0)));
+        }
+        table.append(String.format("%-18s %8s %12.1f %12.1f%n", "run (process)", "", getWallMillis(),
+                getProcessCpuMillis()));
+        return table.toString();
+    }
+
+    /**
+     * Recorded calls of a phase.
+     */
+    public static class PhaseMetrics {
+        private final Phase phase;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private PhaseMetrics(Phase phase) {
+            this.phase = phase;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        public double getWallMillis() {
+            return wallNanos.sum() / 1e6;
+        }
+
+        public double getCpuMillis() {
+            return cpuNanos.sum() / 1e6;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+    }
+
+    /**
+     * Timer of a call (or of a task of a call) of a phase, records the call when it is closed.
+     */
+    public static class Timer implements AutoCloseable {
+        private final PhaseMetrics phase;
+        private final PipelineMetrics metrics;
+        private final boolean call;
+        private final long startNanos;
+        private final long startCpuNanos;
+        private final long startAllocatedBytes;
+
+        private Timer(PhaseMetrics phase, PipelineMetrics metrics, boolean call) {
+            this.phase = phase;
+            this.metrics = metrics;
+            this.call = call;
+            if (phase != null) {
+                startNanos = System.nanoTime();
+                startCpuNanos = getCurrentThreadCpuTime();
+                startAllocatedBytes = getCurrentThreadAllocatedBytes();
+            } else {
+                startNanos = 0;
+                startCpuNanos = 0;
+                startAllocatedBytes = 0;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (phase == null) {
+                return;
+            }
+            activeTimer.remove();
+            // calls finished after the run has been disabled are not recorded
+            if (current != metrics) {
+                return;
+            }
+            phase.cpuNanos.add(getCurrentThreadCpuTime() - startCpuNanos);
+            phase.allocatedBytes.add(getCurrentThreadAllocatedBytes() - startAllocatedBytes);
+            if (call) {
+                phase.wallNanos.add(System.nanoTime() - startNanos);
+                phase.calls.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes OptimizationSessionEntry and OptimizationSessionEntryAdvanced flight by flight with a JsonGenerator,
+ * the weight maps as arrays or (if sparse) run-length encoded (see WeightMapDeserializer).
+ */
+public class SessionJsonWriter {
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * Writes the session to the given file.
+     * @param fileName name of file, which is created/updated
+     * @param ose session
+     * @param compact true to write without whitespace, false to pretty print
+     * @return true if the file has been written, false if the error has been logged
+     */
+    public static boolean writeToFile(String fileName, OptimizationSessionEntry ose, boolean compact) {
+        return writeToFile(fileName, ose, compact, false);
+    }
+
+    /**
+     * Writes the session to the given file.
+     * @param fileName name of file, which is created/updated
+     * @param ose session
+     * @param compact true to write without whitespace, false to pretty print
+     * @param sparse true to write the weight maps run-length encoded, false to write the weight of each slot
+     * @return true if the file has been written, false if the error has been logged (the file may be incomplete)
+     */
+    public static boolean writeToFile(String fileName, OptimizationSessionEntry ose, boolean compact, boolean sparse) {
+        try (OutputStream out = CompressedFileStreams.newOutputStream(fileName);
+                JsonGenerator gen = createGenerator(out, JsonMappers.getMapper(fileName), compact)) {
+            write(gen, ose, sparse);
+            logger.info("Writing information to file '" + fileName + "'.");
+        } catch (IOException e) {
+            logger.error("Cannot write JSON to file '" + fileName + "'.", e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the session to the given file.
+     * @param fileName name of file, which is created/updated
+     * @param osea session with parameters
+     * @param compact true to write without whitespace, false to pretty print
+     * @return true if the file has been written, false if the error has been logged
+     */
+    public static boolean writeToFile(String fileName, OptimizationSessionEntryAdvanced osea, boolean compact) {
+        return writeToFile(fileName, osea, compact, false);
+    }
+
+    /**
+     * Writes the session to the given file.
+     * @param fileName name of file, which is created/updated
+     * @param osea session with parameters
+     * @param compact true to write without whitespace, false to pretty print
+     * @param sparse true to write the weight maps run-length encoded, false to write the weight of each slot
+     * @return true if the file has been written, false if the error has been logged (the file may be incomplete)
+     */
+    public static boolean writeToFile(String fileName, OptimizationSessionEntryAdvanced osea, boolean compact, boolean sparse) {
+        try (OutputStream out = CompressedFileStreams.newOutputStream(fileName);
+                JsonGenerator gen = createGenerator(out, JsonMappers.getMapper(fileName), compact)) {
+            write(gen, osea, sparse);
+            logger.info("Writing information to file '" + fileName + "'.");
+        } catch (IOException e) {
+            logger.error("Cannot write JSON to file '" + fileName + "'.", e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the session to the given stream (the stream is not closed).
+     * @param out output stream
+     * @param ose session
+     * @param compact true to write without whitespace, false to pretty print
+     * @throws IOException if the session cannot be written
+     */
+    public static void write(OutputStream out, OptimizationSessionEntry ose, boolean compact) throws IOException {
+        try (JsonGenerator gen = createGenerator(out, JsonMappers.getMapper(), compact)) {
+            write(gen, ose, false);
+        }
+    }
+
+    /**
+     * Writes the session to the given stream (the stream is not closed).
+     * @param out output stream
+     * @param osea session with parameters
+     * @param compact true to write without whitespace, false to pretty print
+     * @throws IOException if the session cannot be written
+     */
+    public static void write(OutputStream out, OptimizationSessionEntryAdvanced osea, boolean compact) throws IOException {
+        try (JsonGenerator gen = createGenerator(out, JsonMappers.getMapper(), compact)) {
+            write(gen, osea, false);
+        }
+    }
+
+    private static void write(JsonGenerator gen, OptimizationSessionEntry ose, boolean sparse) throws IOException {
+        writeSession(gen, ose.getOptId(), ose.getInitialFlightSequence(), ose.getFlights(), ose.getSlots(),
+                ose.getOptimizationFramework(), ose.getMargins(), sparse);
+        gen.writeEndObject();
+    }
+
+    private static void write(JsonGenerator gen, OptimizationSessionEntryAdvanced osea, boolean sparse) throws IOException {
+        writeSession(gen, osea.getOptId(), osea.getInitialFlightSequence(), osea.getFlights(), osea.getSlots(),
+                osea.getOptimizationFramework(), osea.getMargins(), sparse);
+        writeParameters(gen, osea.getParameters());
+        gen.writeEndObject();
+    }
+
+    /**
+     * Creates the generator with the factory of the given mapper (JSON or Smile), the pretty printer is only
+     * used by JSON.
+     */
+    static JsonGenerator createGenerator(OutputStream out, ObjectMapper mapper, boolean compact) throws IOException {
+        JsonGenerator gen = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (!compact) {
+            gen.setPrettyPrinter(new DefaultPrettyPrinter());
+        }
+        return gen;
+    }
+
+    /**
+     * Writes the start of the session object and all fields, which are common to both session types
+     * (same order as the fields of the classes).
+     */
+    private static void writeSession(JsonGenerator gen, String optId, String[] initialFlightSequence, Flight[] flights,
+            SlotInfo[] slots, String optimizationFramework, List<MarginInfo> margins, boolean sparse) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("optId", optId);
+        writeSequenceFlightsAndSlots(gen, initialFlightSequence, flights, slots, sparse);
+        gen.writeStringField("optimizationFramework", optimizationFramework);
+        writeMargins(gen, margins);
+    }
+
+    /**
+     * Writes the fields initialFlightSequence, flights and slots (these fields are the same for all sessions
+     * of the TestDataGenerator, see SessionTemplate).
+     */
+    static void writeSequenceFlightsAndSlots(JsonGenerator gen, String[] initialFlightSequence, Flight[] flights,
+            SlotInfo[] slots) throws IOException {
+        writeSequenceFlightsAndSlots(gen, initialFlightSequence, flights, slots, false);
+    }
+
+    /**
+     * Writes the fields initialFlightSequence, flights and slots, the weight maps are run-length encoded if sparse.
+     */
+    static void writeSequenceFlightsAndSlots(JsonGenerator gen, String[] initialFlightSequence, Flight[] flights,
+            SlotInfo[] slots, boolean sparse) throws IOException {
+        gen.writeFieldName("initialFlightSequence");
+        if (initialFlightSequence == null) {
+            gen.writeNull();
+        } else {
+            gen.writeArray(initialFlightSequence, 0, initialFlightSequence.length);
+        }
+
+        gen.writeFieldName("flights");
+        if (flights == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(flights, flights.length);
+            for (Flight f: flights) {
+                writeFlight(gen, f, sparse);
+            }
+            gen.writeEndArray();
+        }
+
+        gen.writeFieldName("slots");
+        if (slots == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(slots, slots.length);
+            for (SlotInfo s: slots) {
+                if (s == null) {
+                    gen.writeNull();
+                } else {
+                    gen.writeStartObject();
+                    gen.writeFieldName("time");
+                    gen.writeObject(s.getTime());
+                    gen.writeEndObject();
+                }
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    /**
+     * Writes the field margins.
+     */
+    static void writeMargins(JsonGenerator gen, List<MarginInfo> margins) throws IOException {
+        gen.writeFieldName("margins");
+        if (margins == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(margins, margins.size());
+            for (MarginInfo m: margins) {
+                writeMargin(gen, m);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    private static void writeFlight(JsonGenerator gen, Flight f, boolean sparse) throws IOException {
+        if (f == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeStringField("flightId", f.getFlightId());
+        gen.writeFieldName("scheduledTime");
+        gen.writeObject(f.getScheduledTime());
+        gen.writeFieldName("weightMap");
+        // an encoded weight map or a weight function is written without expanding it
+        WeightMap encodedWeightMap = f.getEncodedWeightMap();
+        WeightFunction weightFunction = f.getWeightFunction();
+        int[] weightMap = encodedWeightMap == null && weightFunction == null ? f.getWeightMap() : null;
+        if (encodedWeightMap == null && weightFunction == null && weightMap == null) {
+            gen.writeNull();
+        } else if (sparse) {
+            if (encodedWeightMap == null) {
+                encodedWeightMap = weightFunction != null ? weightFunction.toWeightMap() : WeightMap.encode(weightMap);
+            }
+            if (encodedWeightMap.getEncodedSize() < encodedWeightMap.getLength()) {
+                writeEncodedWeightMap(gen, encodedWeightMap);
+            } else {
+                writeWeights(gen, encodedWeightMap);
+            }
+        } else if (encodedWeightMap != null) {
+            writeWeights(gen, encodedWeightMap);
+        } else if (weightFunction != null) {
+            writeWeights(gen, weightFunction);
+        } else {
+            gen.writeArray(weightMap, 0, weightMap.length);
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * Writes the weight of each slot as array (the same output as for the expanded weight map).
+     */
+    private static void writeWeights(JsonGenerator gen, WeightMap weightMap) throws IOException {
+        gen.writeStartArray(weightMap, weightMap.getLength());
+        for (int s = 0; s < weightMap.getSegmentCount(); s++) {
+            if (weightMap.isRun(s)) {
+                int weight = weightMap.getRunWeight(s);
+                for (int i = weightMap.getSegmentLength(s); i > 0; i--) {
+                    gen.writeNumber(weight);
+                }
+            } else {
+                for (int weight: weightMap.getLiteralWeights(s)) {
+                    gen.writeNumber(weight);
+                }
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    /**
+     * Writes the weight of each slot as array, the weights are calculated while they are written.
+     */
+    private static void writeWeights(JsonGenerator gen, WeightFunction weightFunction) throws IOException {
+        int slots = weightFunction.getSlotCount();
+        gen.writeStartArray(weightFunction, slots);
+        for (int i = 0; i < slots; i++) {
+            gen.writeNumber(weightFunction.weight(i));
+        }
+        gen.writeEndArray();
+    }
+
+    /**
+     * Writes the segments of the weight map, runs with count and weight, literal segments with the weights.
+     */
+    private static void writeEncodedWeightMap(JsonGenerator gen, WeightMap weightMap) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("length", weightMap.getLength());
+        gen.writeFieldName("segments");
+        gen.writeStartArray(weightMap, weightMap.getSegmentCount());
+        for (int s = 0; s < weightMap.getSegmentCount(); s++) {
+            gen.writeStartObject();
+            if (weightMap.isRun(s)) {
+                gen.writeNumberField("count", weightMap.getSegmentLength(s));
+                gen.writeNumberField("weight", weightMap.getRunWeight(s));
+            } else {
+                int[] weights = weightMap.getLiteralWeights(s);
+                gen.writeFieldName("weights");
+                gen.writeArray(weights, 0, weights.length);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void writeMargin(JsonGenerator gen, MarginInfo m) throws IOException {
+        if (m == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeStringField("flightId", m.getFlightId());
+        gen.writeFieldName("scheduledTime");
+        gen.writeObject(m.getScheduledTime());
+        gen.writeFieldName("timeNotBefore");
+        gen.writeObject(m.getTimeNotBefore());
+        gen.writeFieldName("timeWished");
+        gen.writeObject(m.getTimeWished());
+        gen.writeFieldName("timeNotAfter");
+        gen.writeObject(m.getTimeNotAfter());
+        gen.writeEndObject();
+    }
+
+    static void writeParameters(JsonGenerator gen, Map<String, Object> parameters) throws IOException {
+        gen.writeFieldName("parameters");
+        // parameters are small (configuration of the optimization framework), therefore written with databind
+        gen.writeObject(parameters);
+    }
+}
@@ -0,0 +1,130 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Sessions, which only differ in optId, optimizationFramework and parameters (e.g. the sessions of the
+ * TestDataGenerator). The fields initialFlightSequence, flights, slots and margins are encoded to JSON once,
+ * each file only encodes the changing fields and copies the encoded bytes. The files are the same as the files
+ * of SessionJsonWriter. Smile files are written with SessionJsonWriter (field names of Smile refer to previous
+ * field names, therefore the encoded bytes cannot be reused). Instances are immutable and thread-safe.
+ */
+public class SessionTemplate {
+    private static final Logger logger = LogManager.getLogger();
+
+    private final String[] initialFlightSequence;
+    private final Flight[] flights;
+    private final SlotInfo[] slots;
+    private final List<MarginInfo> margins;
+    private final boolean compact;
+
+    /**
+     * encoded initialFlightSequence, flights and slots (with the separator before initialFlightSequence)
+     */
+    private final byte[] sequenceFlightsAndSlots;
+    /**
+     * encoded margins (with the separator before margins)
+     */
+    private final byte[] encodedMargins;
+
+    /**
+     * Encodes the fields, which are the same for all sessions.
+     * @param osea session with initialFlightSequence, flights, slots and margins (optId, optimizationFramework and
+     *          parameters are ignored)
+     * @param compact true to write without whitespace, false to pretty print
+     */
+    public SessionTemplate(OptimizationSessionEntryAdvanced osea, boolean compact) {
+        this.initialFlightSequence = osea.getInitialFlightSequence();
+        this.flights = osea.getFlights();
+        this.slots = osea.getSlots();
+        this.margins = osea.getMargins();
+        this.compact = compact;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int sequenceStart = 0;
+        int sequenceEnd = 0;
+        int marginsStart = 0;
+        int marginsEnd = 0;
+        try (JsonGenerator gen = SessionJsonWriter.createGenerator(out, JsonMappers.getMapper(), compact)) {
+            // the same fields as SessionJsonWriter, the positions of the invariant fields are stored
+            gen.writeStartObject();
+            gen.writeStringField("optId", "");
+            gen.flush();
+            sequenceStart = out.size();
+            SessionJsonWriter.writeSequenceFlightsAndSlots(gen, initialFlightSequence, flights, slots);
+            gen.flush();
+            sequenceEnd = out.size();
+            gen.writeStringField("optimizationFramework", "");
+            gen.flush();
+            marginsStart = out.size();
+            SessionJsonWriter.writeMargins(gen, margins);
+            gen.flush();
+            marginsEnd = out.size();
+        } catch (IOException e) {
+            // not possible for ByteArrayOutputStream
+            logger.error("Cannot encode session template.", e);
+        }
+        byte[] encoded = out.toByteArray();
+        this.sequenceFlightsAndSlots = Arrays.copyOfRange(encoded, sequenceStart, sequenceEnd);
+        this.encodedMargins = Arrays.copyOfRange(encoded, marginsStart, marginsEnd);
+    }
+
+    /**
+     * Writes the session with the given fields to the given file.
+     * @param fileName name of file, which is created/updated
+     * @param optId optId of the session
+     * @param optimizationFramework optimizationFramework of the session
+     * @param parameters parameters of the session
+     */
+    public void writeToFile(String fileName, String optId, String optimizationFramework, Map<String, Object> parameters) {
+        if (JsonMappers.isSmileFile(fileName)) {
+            OptimizationSessionEntryAdvanced osea = new OptimizationSessionEntryAdvanced(optId, initialFlightSequence,
+                    flights, slots, optimizationFramework, margins);
+            osea.setParameters(parameters);
+            SessionJsonWriter.writeToFile(fileName, osea, compact);
+            return;
+        }
+        try (OutputStream out = CompressedFileStreams.newOutputStream(fileName)) {
+            write(out, optId, optimizationFramework, parameters);
+            logger.info("Writing information to file '" + fileName + "'.");
+        } catch (IOException e) {
+            logger.error("Cannot write JSON to file '" + fileName + "'.", e);
+        }
+    }
+
+    /**
+     * Writes the session with the given fields as JSON to the given stream (the stream is not closed).
+     * @param out output stream
+     * @param optId optId of the session
+     * @param optimizationFramework optimizationFramework of the session
+     * @param parameters parameters of the session
+     * @throws IOException if the session cannot be written
+     */
+    public void write(OutputStream out, String optId, String optimizationFramework, Map<String, Object> parameters)
+            throws IOException {
+        try (JsonGenerator gen = SessionJsonWriter.createGenerator(out, JsonMappers.getMapper(), compact)) {
+            // flush only writes the buffer of the generator (a compressing stream is not flushed)
+            gen.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            gen.writeStartObject();
+            gen.writeStringField("optId", optId);
+            gen.flush();
+            out.write(sequenceFlightsAndSlots);
+            // the generator writes the separator, because optId is the previous field of the object
+            gen.writeStringField("optimizationFramework", optimizationFramework);
+            gen.flush();
+            out.write(encodedMargins);
+            SessionJsonWriter.writeParameters(gen, parameters);
+            gen.writeEndObject();
+        }
+    }
+}
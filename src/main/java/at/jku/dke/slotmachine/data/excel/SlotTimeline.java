@@ -0,0 +1,202 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Times of the slots of an optimization. The times are stored as epoch seconds of the local date-time
+ * (all slots have the same nano-of-second), therefore index -> time and (for regular slots with a fixed
+ * interval) time -> index are O(1). The slots can be iterated as Slot objects like the list of
+ * FlightGenerator.generateSequenceItems.
+ */
+public class SlotTimeline implements Iterable<Slot> {
+	private static final Logger logger = LogManager.getLogger();
+
+	/**
+	 * local date-time of each slot as epoch seconds (at ZoneOffset.UTC)
+	 */
+	private final long[] epochSeconds;
+	private final int nanoOfSecond;
+	private final int firstSequenceNumber;
+	/**
+	 * interval in seconds between two slots, or 0 if the slots are not regular
+	 */
+	private final int interval;
+	private final boolean sorted;
+
+	/**
+	 * Creates the slots of an optimization (from start time to end time with the interval of the optimization,
+	 * sequence numbers begin at 0).
+	 * @param opt OptimizationEntry
+	 */
+	public SlotTimeline(OptimizationEntry opt) {
+		LocalDateTime startTime = opt.getStartTime();
+		this.interval = opt.getInterval();
+		this.nanoOfSecond = startTime.getNano();
+		this.firstSequenceNumber = 0;
+		this.sorted = true;
+
+		long totalSeconds = Duration.between(startTime, opt.getEndTime()).toSeconds();
+		int size = 0;
+		if (interval <= 0) {
+			logger.error("Interval of optimization " + opt.getOptId() + " must be greater than 0. No slots are created.");
+		} else if (totalSeconds >= 0) {
+			size = (int) (totalSeconds / interval) + 1;
+		}
+
+		long startSecond = startTime.toEpochSecond(ZoneOffset.UTC);
+		this.epochSeconds = new long[size];
+		for (int i = 0; i < size; i++) {
+			epochSeconds[i] = startSecond + (long) i * interval;
+		}
+	}
+
+	/**
+	 * Creates the slots with the given times.
+	 * @param times time of each slot (all times must have the same nano-of-second)
+	 * @param firstSequenceNumber sequence number of the first slot
+	 */
+	public SlotTimeline(LocalDateTime[] times, int firstSequenceNumber) {
+		this.firstSequenceNumber = firstSequenceNumber;
+		this.epochSeconds = new long[times.length];
+		this.nanoOfSecond = times.length > 0 ? times[0].getNano() : 0;
+
+		boolean isSorted = true;
+		for (int i = 0; i < times.length; i++) {
+			if (times[i].getNano() != nanoOfSecond) {
+				throw new IllegalArgumentException("All slots must have the same nano-of-second.");
+			}
+			epochSeconds[i] = times[i].toEpochSecond(ZoneOffset.UTC);
+			if (i > 0 && epochSeconds[i] <= epochSeconds[i-1]) {
+				isSorted = false;
+			}
+		}
+		this.sorted = isSorted;
+
+		// slots are regular, if all slots have the same distance
+		int regularInterval = 0;
+		if (isSorted && times.length > 1 && epochSeconds[1] - epochSeconds[0] <= Integer.MAX_VALUE) {
+			regularInterval = (int) (epochSeconds[1] - epochSeconds[0]);
+			for (int i = 2; i < times.length && regularInterval > 0; i++) {
+				if (epochSeconds[i] - epochSeconds[i-1] != regularInterval) {
+					regularInterval = 0;
+				}
+			}
+		}
+		this.interval = regularInterval;
+	}
+
+	/**
+	 * @return number of slots
+	 */
+	public int size() {
+		return epochSeconds.length;
+	}
+
+	/**
+	 * @param index index of the slot (0-based)
+	 * @return time of the slot
+	 */
+	public LocalDateTime getTime(int index) {
+		return LocalDateTime.ofEpochSecond(epochSeconds[index], nanoOfSecond, ZoneOffset.UTC);
+	}
+
+	/**
+	 * @param index index of the slot (0-based)
+	 * @return time of the slot as epoch seconds of the local date-time (at ZoneOffset.UTC)
+	 */
+	public long getEpochSecond(int index) {
+		return epochSeconds[index];
+	}
+
+	/**
+	 * @return true, if the times of the slots are strictly increasing
+	 */
+	public boolean isSorted() {
+		return sorted;
+	}
+
+	/**
+	 * @return nano-of-second of all slots
+	 */
+	public int getNanoOfSecond() {
+		return nanoOfSecond;
+	}
+
+	/**
+	 * @param index index of the slot (0-based)
+	 * @return sequence number of the slot
+	 */
+	public int getSequenceNumber(int index) {
+		if (index < 0 || index >= epochSeconds.length) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + epochSeconds.length + " slots.");
+		}
+		return firstSequenceNumber + index;
+	}
+
+	/**
+	 * @param index index of the slot (0-based)
+	 * @return slot with sequence number and time
+	 */
+	public Slot getSlot(int index) {
+		return new Slot(getSequenceNumber(index), getTime(index));
+	}
+
+	/**
+	 * @param time time of a slot
+	 * @return index of the (first) slot with the given time, or -1 if there is no slot at this time
+	 */
+	public int indexOf(LocalDateTime time) {
+		if (epochSeconds.length == 0 || time.getNano() != nanoOfSecond) {
+			return -1;
+		}
+		long second = time.toEpochSecond(ZoneOffset.UTC);
+		if (interval > 0) {
+			long distance = second - epochSeconds[0];
+			if (distance < 0 || distance % interval != 0 || distance / interval >= epochSeconds.length) {
+				return -1;
+			}
+			return (int) (distance / interval);
+		}
+		if (sorted) {
+			int index = Arrays.binarySearch(epochSeconds, second);
+			return index >= 0 ? index : -1;
+		}
+		// e.g. local times repeat at the end of daylight saving time
+		for (int i = 0; i < epochSeconds.length; i++) {
+			if (epochSeconds[i] == second) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public Iterator<Slot> iterator() {
+		return new Iterator<Slot>() {
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < epochSeconds.length;
+			}
+
+			@Override
+			public Slot next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Slot slot = getSlot(index);
+				index++;
+				return slot;
+			}
+		};
+	}
+}
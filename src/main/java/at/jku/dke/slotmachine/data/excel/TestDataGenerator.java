@@ -3,12 +3,17 @@ package at.jku.dke.slotmachine.data.excel;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.OptionalDouble;
-import java.util.Random;
+import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -18,6 +23,11 @@ import at.jku.dke.slotmachine.data.excel.dto.TestDataConfigDTO;
 public class TestDataGenerator {
 
 	private static final Logger logger = LogManager.getLogger();
+	/**
+	 * start of the slots if a seed but no slotStartTime is configured (the slots must not depend on the current time,
+	 * otherwise the same seed would generate different files)
+	 */
+	public static final Instant SEEDED_SLOT_START_TIME = Instant.parse("2021-01-01T00:00:00Z");
 	/**
 	 * Generates test data (JSON file(s))
 	 * @param filesLocation location of configuration JSON file; generated JSON files will be stored in the same folder
@@ -25,16 +35,64 @@ public class TestDataGenerator {
 	 * 	
 	 * 			- flightCount, slotCount (should be the same number)<br>
 	 * 			- flightPrefix<br>
-	 * 			- slotStartTime, slotLengthSec (for the start of the slots and length of slots)<br>
+	 * 			- slotStartTime, slotLengthSec (for the start of the slots and length of slots; if slotStartTime is not set,
+	 * 			  the slots start now, or at SEEDED_SLOT_START_TIME if a seed is set)<br>
 	 * 			- marginWindowLength (in seconds)<br>
 	 * 			- distributionSetting (which flight distribution setting should be used)<br>
+	 * 			- distributionTable (density of the flights over the slots with any number of entries, replaces distributionSetting)<br>
 	 * 			- optimizationFramework (this is usually overwritten)<br>
 	 * 			- prioritySetting (how priority should be set for the flights)<br>
 	 * 			- minValue, maxValue (for the weight map)<br>
-	 * 			- maxTime (in seconds) (maximum time per optimization session)
+	 * 			- maxTime (in seconds) (maximum time per optimization session)<br>
+	 * 			- seed (seed of all random values and optIds, the same seed generates the same files; random if not set)<br>
+	 * 			- outputExtension (extension of the generated files, e.g. '.json.gz'; extension of the configuration file if not set)
 	 */
 	public static void generateTestData(String filesLocation, TestDataConfigDTO tdgConfig) {
+		generateTestData(filesLocation, tdgConfig, 1);
+	}
+	
+	/**
+	 * Generates test data (JSON file(s)), the files are written in parallel
+	 * @param filesLocation location of configuration JSON file; generated JSON files will be stored in the same folder
+	 * @param tdgConfig configuration for tdg (see generateTestData(String, TestDataConfigDTO))
+	 * @param threads number of threads writing the files (1 writes the files sequentially, 0 or less uses all available processors)
+	 */
+	public static void generateTestData(String filesLocation, TestDataConfigDTO tdgConfig, int threads) {
+		if (tdgConfig != null && tdgConfig.getOutputExtension() != null) {
+			generateTestData(filesLocation, tdgConfig, tdgConfig.getOutputExtension(), threads);
+		} else {
+			generateTestData(filesLocation, tdgConfig, JsonMappers.getExtension(filesLocation), threads);
+		}
+	}
+	
+	/**
+	 * Generates test data (JSON or Smile file(s))
+	 * @param filesLocation location of configuration file; generated files will be stored in the same folder
+	 * @param tdgConfig configuration for tdg (see generateTestData(String, TestDataConfigDTO))
+	 * @param extension extension of the generated files ('.json' or '.smile' for the binary Smile format, 
+	 * 			optionally compressed with '.gz' or '.zst', e.g. '.json.gz')
+	 */
+	public static void generateTestData(String filesLocation, TestDataConfigDTO tdgConfig, String extension) {
+		generateTestData(filesLocation, tdgConfig, extension, 1);
+	}
+	
+	/**
+	 * Generates test data (JSON or Smile file(s)), the files are written in parallel
+	 * @param filesLocation location of configuration file; generated files will be stored in the same folder
+	 * @param tdgConfig configuration for tdg (see generateTestData(String, TestDataConfigDTO))
+	 * @param extension extension of the generated files (see generateTestData(String, TestDataConfigDTO, String))
+	 * @param threads number of threads writing the files (1 writes the files sequentially, 0 or less uses all available processors)
+	 */
+	public static void generateTestData(String filesLocation, TestDataConfigDTO tdgConfig, String extension, int threads) {
 		logger.info("Generating test data.");
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		String baseName = JsonMappers.removeExtension(filesLocation);
+		if (extension == null || !JsonMappers.isSessionFile(extension)) {
+			logger.info("Extension '" + extension + "' is not supported, generated files are written as '" + JsonMappers.JSON_EXTENSION + "'.");
+			extension = JsonMappers.JSON_EXTENSION;
+		}
 		
 		// possible inputs are in tdgConfig
 		
@@ -50,19 +108,22 @@ public class TestDataGenerator {
 		optConfigs = generateOptConfigs(tdgConfig.getMaxTime()); // 7 different configurations
 		int sessionCount = 24;
 
+		// all random values (priorities, optIds) are generated with the seed of the configuration
+		SplittableRandom random = new SplittableRandom(tdgConfig.getSeed());
+		
 		// common settings (initial flight sequence, slots, margins, flights, ...)
-		UUID optId = UUID.randomUUID();
+		UUID optId = randomUUID(random);
 		String[] initialFlightSequence = generateInitialFlightSequence(tdgConfig.getFlightCount(), tdgConfig.getSlotCount(), tdgConfig.getFlightPrefix());
 		SlotInfo[] slots = generateSlots(tdgConfig.getSlotCount(), tdgConfig.getSlotStartTime(), tdgConfig.getSlotLengthSec());
 		
-		List<Slot> slotList = convertSlotInfoToSlotList(slots);
+		SlotTimeline slotList = convertSlotInfoToSlotTimeline(slots);
 		OptimizationEntry optE = new OptimizationEntry(optId.toString(), tdgConfig.getSlotStartTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime(),
 				slots[slots.length-1].getTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime(), tdgConfig.getSlotLengthSec(), 
 				tdgConfig.getOptimizationFramework(), tdgConfig.getMinValue(), tdgConfig.getMaxValue(), tdgConfig.getDropValue());
 		
 		// generate MarginEntries, then Flights, so that MarginEntries can be used later (for MarginInfos)
 		MarginEntry[] margins = generateMargins(tdgConfig.getFlightCount(), slotList, tdgConfig.getMarginWindowLength(),
-				tdgConfig.getDistributionSetting(), tdgConfig.getPrioritySettings(), tdgConfig.getFlightPrefix(), optE);
+				getFlightDistribution(tdgConfig), tdgConfig.getPrioritySettings(), tdgConfig.getFlightPrefix(), optE, random.split());
 		Flight[] flights = generateFlights(tdgConfig.getFlightCount(), slotList, margins, 
 				tdgConfig.getFlightPrefix(), optE);
 		
@@ -71,64 +132,86 @@ public class TestDataGenerator {
 		//generateMarginInfo (contains Margins fr later usage in Optimizer)
 		// store data in JSON file
 		logger.info("Set Margin-List with given input.");
-		List<MarginInfo> marginInfos = new LinkedList<MarginInfo>();
-		for (Flight f: flights) {
-			MarginInfo currentMarginInfo = new MarginInfo();
-			for (MarginEntry me: margins) {
-				if (f.getFlightId().equals(me.getFlightId())) {
-					currentMarginInfo.setFlightId(f.getFlightId());
-					currentMarginInfo.setScheduledTime(me.getScheduledTime().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-					currentMarginInfo.setTimeNotBefore(me.getTimeNotBefore().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-					currentMarginInfo.setTimeWished(me.getTimeWished().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-					currentMarginInfo.setTimeNotAfter(me.getTimeNotAfter().atZone(ZoneId.of("Europe/Vienna")).toInstant());
-				}
-			}
-			if (currentMarginInfo.getTimeNotAfter() != null) {
-				marginInfos.add(currentMarginInfo);
-			}
-		}
+		List<MarginInfo> marginInfos = FlightRegistry.ofMargins(Arrays.asList(margins)).getMarginInfos(flights);
 		
 		OptimizationSessionEntryAdvanced optEntry = new OptimizationSessionEntryAdvanced(optId.toString(),
 				initialFlightSequence, flights, slots, tdgConfig.getOptimizationFramework());
 		optEntry.setMargins(marginInfos);
+		// initialFlightSequence, flights, slots and margins are the same for all sessions and therefore encoded only once
+		SessionTemplate template = new SessionTemplate(optEntry, false);
 		
 		
-		// repeat for every new optimization session
-		for (int i = 0; i < sessionCount; i++) {
-		//for (int i = 0; i < sessionCount; i++) {
-			UUID currentOptId = UUID.randomUUID();
-			optEntry.setOptId(currentOptId.toString());
-			
-			if (i < 16) {
-				logger.info("Add jenetics configuration.");
-				optEntry.setParameters(jenConfigs.get(i));
-				optEntry.setOptimizationFramework("JENETICS");
-				for (int k = 1; k <= 5; k++) { //generate 5 files per Jenetics configuration to allow multiple checks due to different results per same run
-					currentOptId = UUID.randomUUID(); //generate seperate optIDs
-					optEntry.setOptId(currentOptId.toString()); //generate seperate optIDs
-					String fileName = filesLocation.substring(0,filesLocation.length()-5) + "-" + i + "-" + k + "--" + currentOptId.toString() + ".json";
-					JsonOutputWriter.writeToFile(fileName, optEntry);
+		// the files are written by the executor (if more than one thread is used), optEntry is not changed per file, 
+		// optId, optimizationFramework and parameters of each file are given to the template
+		ExecutorService executor = null;
+		if (threads > 1) {
+			logger.info("Writing files with " + threads + " threads.");
+			executor = Executors.newFixedThreadPool(threads);
+		}
+		List<Future<?>> writes = new LinkedList<Future<?>>();
+		try {
+			// repeat for every new optimization session
+			for (int i = 0; i < sessionCount; i++) {
+			//for (int i = 0; i < sessionCount; i++) {
+				UUID currentOptId = randomUUID(random);
+				
+				if (i < 16) {
+					logger.info("Add jenetics configuration.");
+					for (int k = 1; k <= 5; k++) { //generate 5 files per Jenetics configuration to allow multiple checks due to different results per same run
+						currentOptId = randomUUID(random); //generate seperate optIDs
+						String fileName = baseName + "-" + i + "-" + k + "--" + currentOptId.toString() + extension;
+						writeSession(executor, writes, template, fileName, currentOptId.toString(), "JENETICS", jenConfigs.get(i));
+					}
+				} else if (i < 23){ // for OptaPlanner require only one run per configuration, therefore no multiple files per configuration
+					logger.info("Add optaplanner configuration.");
+					// i is at index 16 place ahead (due to jenConfigs size)
+					String fileName = baseName + "-" + i + "--" + currentOptId.toString() + extension;
+					writeSession(executor, writes, template, fileName, currentOptId.toString(), "OPTAPLANNER", optConfigs.get(i-16));
+				} else {
+					logger.info("Add Hungarian Algorithm configuration.");
+					String fileName = baseName + "-" + i + "--" + currentOptId.toString() + extension;
+					writeSession(executor, writes, template, fileName, currentOptId.toString(), "HUNGARIAN", null);
 				}
-			} else if (i < 23){ // for OptaPlanner require only one run per configuration, therefore no multiple files per configuration
-				logger.info("Add optaplanner configuration.");
-				optEntry.setParameters(optConfigs.get(i-16)); // i is at index 16 place ahead (due to jenConfigs size)
-				optEntry.setOptimizationFramework("OPTAPLANNER");
-				String fileName = filesLocation.substring(0,filesLocation.length()-5) + "-" + i + "--" + currentOptId.toString() + ".json";
-				JsonOutputWriter.writeToFile(fileName, optEntry);
-			} else {
-				logger.info("Add Hungarian Algorithm configuration.");
-				optEntry.setOptimizationFramework("HUNGARIAN");
-				optEntry.setParameters(null);
-				String fileName = filesLocation.substring(0,filesLocation.length()-5) + "-" + i + "--" + currentOptId.toString() + ".json";
-				JsonOutputWriter.writeToFile(fileName, optEntry);
+	
+//				String fileName = filesLocation.substring(0,filesLocation.length()-5) + "-" + i + "--" + currentOptId.toString() + ".json";
+//				JsonOutputWriter.writeToFile(fileName, optEntry);
+			}
+			
+			for (Future<?> write: writes) {
+				write.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Generation of test data has been interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Could not write test data.", e.getCause());
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
 			}
-
-//			String fileName = filesLocation.substring(0,filesLocation.length()-5) + "-" + i + "--" + currentOptId.toString() + ".json";
-//			JsonOutputWriter.writeToFile(fileName, optEntry);
 		}
 		
 		return;
 	}
+	
+	/**
+	 * Writes one session file with the executor or, if no executor is given, immediately
+	 * @param executor executor writing the file, or null
+	 * @param writes pending writes of the executor (the write of this file is added)
+	 * @param template encoded fields, which are the same for all sessions
+	 * @param fileName name of file, which is created/updated
+	 * @param optId optId of the session
+	 * @param optimizationFramework optimizationFramework of the session
+	 * @param parameters parameters of the session
+	 */
+	private static void writeSession(ExecutorService executor, List<Future<?>> writes, SessionTemplate template, String fileName,
+			String optId, String optimizationFramework, Map<String, Object> parameters) {
+		if (executor == null) {
+			template.writeToFile(fileName, optId, optimizationFramework, parameters);
+		} else {
+			writes.add(executor.submit(() -> template.writeToFile(fileName, optId, optimizationFramework, parameters)));
+		}
+	}
 
 	/**
 	 * Returns the given number as String with leading zeros according to max.
@@ -208,23 +291,26 @@ public class TestDataGenerator {
 	/**
 	 * Generate flights regarding parameters with margins
 	 * @param flightCount amount of flights
-	 * @param slots list of possible slots
+	 * @param slots possible slots
 	 * @param me MarginEntry object
 	 * @param flightPrefix prefix (for flightId)
 	 * @param optE OptimizationEntry object
 	 * @return array of flights
 	 */
-	private static Flight[] generateFlights(int flightCount, List<Slot> slots, 
+	private static Flight[] generateFlights(int flightCount, SlotTimeline slots, 
 			MarginEntry[] me, String flightPrefix,
 			OptimizationEntry optE) {
 		// scheduledTime currently set to slotBegin for all flights
 		Flight[] flights = new Flight[slots.size()];
+		// slot times are the same for all weight maps
+		long[] slotOffsets = FlightGenerator.getSlotOffsets(slots, optE);
+		LocalDateTime scheduledTime = slots.getTime(0);
 		
 		for (int i = 0; i < slots.size(); i++) {
 			int nr = i + 1;
 			String flightId = flightPrefix + nr;
-			flights[i] = generateFlight(flightId, slots.get(0).getTime(), 
-					me[i], slots, optE);
+			flights[i] = generateFlight(flightId, scheduledTime, 
+					me[i], slotOffsets, optE);
 		}
 		return flights;
 	}
@@ -232,44 +318,49 @@ public class TestDataGenerator {
 	/**
 	 * Generate margin entries with the given input.
 	 * @param flightCount amount of flights
-	 * @param slots list of possible slots
+	 * @param slots possible slots
 	 * @param marginWindowWidth duration between TimeNotBefore and TimeNotAfter (in seconds)
-	 * @param distributionSetting setting for distribution
+	 * @param distribution distribution of the flights over the slots (null for one flight per slot)
 	 * @param priority settings for priority
 	 * @param flightPrefix prefix (for flightId)
 	 * @param optE OptimizationEntry object
+	 * @param random generator of the random priorities
 	 * @return array of margin entries
 	 */
-	private static MarginEntry[] generateMargins(int flightCount, List<Slot> slots, 
-			int marginWindowWidth, int distributionSetting, double[][] priority, String flightPrefix,
-			OptimizationEntry optE) {
+	private static MarginEntry[] generateMargins(int flightCount, SlotTimeline slots, 
+			int marginWindowWidth, FlightDistribution distribution, double[][] priority, String flightPrefix,
+			OptimizationEntry optE, SplittableRandom random) {
 		MarginEntry[] margins = new MarginEntry[slots.size()];
-		switch (distributionSetting) {
+		switch (distribution == null ? 0 : 1) {
 			// setting 0: one flight per slot
 			case 0:
 				for (int i = 0; i < slots.size(); i++) {
-					double priorityCurrent = getCurrentPriority(priority, i, slots.size());
+					double priorityCurrent = getCurrentPriority(priority, i, slots.size(), random);
 					
 					int nr = i + 1;
 					String flightId = flightPrefix + nr;
 					logger.debug("Flight " + flightId + ": priority = " + priorityCurrent);
-					margins[i] = generateMargin(flightId, slots.get(0).getTime(), 
-							marginWindowWidth, slots.get(i).getTime(), priorityCurrent, slots, optE);
+					margins[i] = generateMargin(flightId, slots.getTime(0), 
+							marginWindowWidth, slots.getTime(i), priorityCurrent, slots, optE);
 				}
 				return margins;
-			// setting 1, 2, 3, 4 (distribution setting affects getFlightDistribution)
+			// setting 1, 2, 3, 4 or distribution table (see getFlightDistribution)
 			default:
-				double[] flightDistribution = getFlightDistribution(distributionSetting, slots.size());
-				int[] flightMap = getFlightMap(flightCount, flightDistribution, slots, distributionSetting);
+				int[] flightMap = distribution.getFlightMap(flightCount, slots.size());
+				if (logger.isDebugEnabled()) {
+					for (int l = 0; l < flightMap.length; l++) {
+						logger.debug("flightMap[" + l + "]: " + flightMap[l]);
+					}
+				}
 				int posMargins = 0;
 				for (int i = 0; i < slots.size() && posMargins < slots.size(); i++) {
-					double priorityCurrent = getCurrentPriority(priority, i, slots.size());
+					double priorityCurrent = getCurrentPriority(priority, i, slots.size(), random);
 					
 					for (int j = 0; j < flightMap[i] && posMargins < slots.size(); j++) {
 						int nr = posMargins + 1;
 						String flightId = flightPrefix + nr;
-						margins[posMargins] = generateMargin(flightId, slots.get(0).getTime(), 
-								marginWindowWidth, slots.get(i).getTime(), priorityCurrent, slots, optE);
+						margins[posMargins] = generateMargin(flightId, slots.getTime(0), 
+								marginWindowWidth, slots.getTime(i), priorityCurrent, slots, optE);
 						posMargins++;
 					}
 				}
@@ -277,14 +368,35 @@ public class TestDataGenerator {
 		}
 	}
 	
-	// helper method for generateMargins
+	// helper methods for generateMargins
+	/**
+	 * Returns the distribution of the flights over the slots: the distribution table of the configuration, if it is 
+	 * given, otherwise the table of the distribution setting
+	 * @param tdgConfig configuration for tdg
+	 * @return distribution, or null if every slot gets one flight (setting 0 without distribution table)
+	 */
+	private static FlightDistribution getFlightDistribution(TestDataConfigDTO tdgConfig) {
+		double[] table = tdgConfig.getDistributionTable();
+		if (table == null || table.length == 0) {
+			if (tdgConfig.getDistributionSetting() == 0) {
+				return null;
+			}
+			table = getFlightDistribution(tdgConfig.getDistributionSetting(), tdgConfig.getSlotCount());
+		}
+		if (table.length == 0) {
+			logger.info("Distribution setting " + tdgConfig.getDistributionSetting() + " is unknown, flights are distributed evenly.");
+			table = new double[] {1};
+		}
+		return FlightDistribution.ofTable(table);
+	}
+	
 	/**
 	 * Sets flight distribution (the higher, the more flights will be at this particular slot).
 	 * 
 	 * Keep in mind, that low numbers may lead to no flights at all at the particular slots.
 	 * @param i scenario of flight distribution
 	 * @param size count of available slots
-	 * @return array with 101 entries, for probability the current %-slot contains a flight or not (1=yes, 0=no)
+	 * @return array with 100 entries, the density of flights at the current %-slot (empty for unknown scenarios)
 	 */
 	private static double[] getFlightDistribution(int i, int size) {
 		double[] distribution = new double[0];
@@ -423,48 +535,6 @@ public class TestDataGenerator {
 	}
 
 	
-	// helper methods for getcurrentOpenFlights
-	/**
-	 * Return first highest number of the given array
-	 * @param array given array
-	 * @return first highest number of the given array
-	 */
-	private static int getHighestPosOfArray(int[] array) {
-		int max = Integer.MIN_VALUE;
-		int pos = 0;
-		for (int i = 0; i < array.length; i++) {
-			if (array[i] > max) {
-				max = array[i];
-				pos = i;
-			}
-		}
-		return pos;
-	}
-	/**
-	 * Return sum of the array elements (int[] array)
-	 * @param array given array
-	 * @return sum of the array element values
-	 */
-	private static int sumOfArray(int[] array) {
-		int sum = 0;
-		for (int i = 0; i < array.length; i++) {
-			sum = sum + array[i];
-		}
-		return sum;
-	}
-	// (also helper for getflightMap)
-	/**
-	 * Helper method for getFlightMap as well. Return sum of the array elements (double[] array)
-	 * @param array given array
-	 * @return sum of the array element values
-	 */
-	private static double sumOfArray(double[] array) {
-		double sum = 0;
-		for (int i = 0; i < array.length; i++) {
-			sum = sum + array[i];
-		}
-		return sum;
-	}
 	/**
 	 * Fill array slots from beginIndex (including) to endIndex (excluding) with value.
 	 * @param array given array, to be filled with values
@@ -498,195 +568,17 @@ public class TestDataGenerator {
 		return array;
 	}
 	
-	// helper method for generateMargin
 	/**
-	 * Generates flight map, stating how many flights have TimeWished in the particular slot
-	 * @return flight map ([0, 2, 0] -> all 2 flights in second slot)
+	 * Generates a random UUID (version 4) with the given generator, so that the optIds depend on the seed
+	 * @param random generator
+	 * @return random UUID
 	 */
-	/**
-	 * Helper method for generateMargin. Generates flight map, stating how many flights have TimeWished in the particular slot.
-	 * @param flightCount amount of flights
-	 * @param distribution distribution of flight map
-	 * @param slots list of given slots
-	 * @param distributionSetting setting for distribution
-	 * @return flight map ([0, 2, 0] -> all 2 flights in second slot)
-	 */
-	private static int[] getFlightMap(int flightCount, double[] distribution, List<Slot> slots, int distributionSetting) {
-		int slotCount = slots.size(); // same as flightCount
-		if (slotCount <= 0 || flightCount <= 0 || distribution == null) {
-			return new int[0];
-		}
-		if (slotCount == 1) {
-			int[] flightMap = {1};
-			return flightMap;
-		}
-		
-		// adapt distribution to current flightCount and insert values according to distribution
-		double[] adaptedDistribution = new double[flightCount];
-		for (int i = 0; i < flightCount; i++) {
-			int currentPerc = getCurrentPerc(flightCount, i);
-			adaptedDistribution[i] = distribution[currentPerc];// * 100;
-			logger.debug("current Perc:" + currentPerc + " | i: " + i + " | adaptedDistribution[i]: " + adaptedDistribution[i]);
-		}
-		
-		double sumAdaptedDistribution = sumOfArray(adaptedDistribution);
-		double factorForFlightMap = ((double) flightCount) / sumAdaptedDistribution;
-		logger.debug("factor for flightMap: " + factorForFlightMap + " | flightCount: " + flightCount + " | sum: " + sumAdaptedDistribution);
-		int[] flightMap = new int[flightCount];
-		for (int i = 0; i < flightCount; i++) {
-			flightMap[i] = (int) (adaptedDistribution[i] * factorForFlightMap);
-		}
-		// repair section (as the algorithm may have missed some flights or falsely assigned some flights
-		if (sumOfArray(flightMap) != flightCount) {
-			flightMap = repairFlightMap(flightMap, distributionSetting, flightCount);
-			// assign remaining missing flights if repairFlightMap missed some flights or was
-			// unable to repair
-			int highestPosPercentageDistr = getHighestPosOfArray(flightMap);
-			int missingFlights = flightCount - sumOfArray(flightMap);
-			flightMap[highestPosPercentageDistr] = flightMap[highestPosPercentageDistr] + missingFlights;
-		} 
-		if (/*logger.isInfoEnabled() || */logger.isDebugEnabled()) {
-			for (int l = 0; l < flightMap.length; l++) {
-				logger.debug("flightMap[" + l + "]: " + flightMap[l]);
-			}
-			logger.debug("Sum of all flights in flightMap: " + sumOfArray(flightMap));
-		}
-		return flightMap;
-	}
-	// can be used to assign flightDifference (missing flights) more evenly and not just at one point
-	/**
-	 * Repairs a flight map (used when flightCount != sumOfArray(flightMap))
-	 * @param flightMap given flightMap, with set flights (usually missing some flights)
-	 * @param distributionSetting setting of flight distribution, necessary to determine if 
-	 * 		the highest values are in the middle or somewhere else
-	 * @param flightCount count of flights
-	 * @return repaired flightMap
-	 */
-	private static int[] repairFlightMap(int[] flightMap, int distributionSetting, int flightCount) {
-		int flightDifference = flightCount - sumOfArray(flightMap);
-		if (flightCount < 3) {
-			// if only 0, 1 or 2 flights, then assign all missing flights (or subtract all flights, which are too many) 
-			// to first highest value in the array
-			int highestPosPercentageDistr = getHighestPosOfArray(flightMap);
-			flightMap[highestPosPercentageDistr] = flightMap[highestPosPercentageDistr] + flightDifference;
-			return flightMap;
-		}
-		// if the highest value is in the middle of the flightMap
-			// for setting 1, 3 and 4 (where the highest value is somewhere in the middle)
-		if (distributionSetting == 1 || distributionSetting == 3 || distributionSetting == 4) {
-			int highestPosValue = getHighestPosOfArray(flightMap);
-			int currentPos1 = highestPosValue;
-			int currentPos2 = highestPosValue;
-			// go with currentPos1 from middle point in array to lowest point in array
-			//		and add a flight every defined step if flights are missing
-			// go with currentPos2 from middle point in array to highest point in array
-			//		and add a flight every defined step if flights are missing
-			while (currentPos1 >= 0 && currentPos2 < flightMap.length &&
-					flightDifference > 0 && (int) (flightMap.length/10) >= 1) {
-				if (flightMap[currentPos1] == 0) {
-					flightMap[currentPos1] = 1;
-					flightDifference = flightDifference - 1;
-				}
-				if (flightMap[currentPos2] == 0) {
-					flightMap[currentPos2] = 1;
-					flightDifference = flightDifference - 1;
-				}
-				currentPos1 = currentPos1 - (int) (flightMap.length/10);
-				currentPos2 = currentPos2 + (int) (flightMap.length/10);	
-			}
-			
-			// reset and fill other slots, if slots are still open without flights
-			// go with currentPos1 from middle point in array to lowest point in array
-			//		and add a flight every defined step if flights are still missing
-			// go with currentPos2 from middle point in array to highest point in array
-			//		and add a flight every defined step if flights are still missing
-			currentPos1 = highestPosValue;
-			currentPos2 = highestPosValue;
-			while (currentPos1 >= 0 && currentPos2 < flightMap.length && flightDifference > 0) {
-				if (flightMap[currentPos1] == 0) {
-					flightMap[currentPos1] = 1;
-					flightDifference = flightDifference - 1;
-				}
-				if (flightMap[currentPos2] == 0) {
-					flightMap[currentPos2] = 1;
-					flightDifference = flightDifference - 1;
-				}
-				currentPos1 = currentPos1 - 1;
-				currentPos2 = currentPos2 + 1;	
-			}
-			return flightMap;
-		}
-		// if the highest value is at the beginning and end of the array
-			// for setting 2 (where the highest value is not in the middle)
-		if (distributionSetting == 2) {
-			int currentPos1 = 0;
-			int currentPos2 = flightMap.length - 1;
-			// go with currentPos1 from lowest point in array to middle point in array
-			//		and add a flight every defined step if flights are missing
-			// go with currentPos2 from highest point in array to middle point in array
-			//		and add a flight every defined step if flights are missing
-			while(currentPos1 < flightMap.length && currentPos2 >= 0 && 
-					flightDifference > 0 && (int) (flightMap.length/10) >= 1) {
-				if (flightMap[currentPos1] == 0) {
-					flightMap[currentPos1] = 1;
-					flightDifference = flightDifference - 1;
-				}
-				if (flightMap[currentPos2] == 0) {
-					flightMap[currentPos2] = 1;
-					flightDifference = flightDifference - 1;
-				}
-				currentPos1 = currentPos1 + (int) (flightMap.length/10);
-				currentPos2 = currentPos2 - (int) (flightMap.length/10);	
-			}
-			
-			// reset and fill other slots
-			// go with currentPos1 from lowest point in array to middle point in array
-			//		and add a flight every single step if flights are still missing
-			// go with currentPos2 from highest point in array to middle point in array
-			//		and add a flight every single step if flights are still missing
-			currentPos1 = 0;
-			currentPos2 = flightMap.length - 1;
-			while(currentPos1 < flightMap.length && currentPos2 >= 0 && flightDifference > 0) {
-				if (flightMap[currentPos1] == 0) {
-					flightMap[currentPos1] = 1;
-					flightDifference = flightDifference - 1;
-				}
-				if (flightMap[currentPos2] == 0) {
-					flightMap[currentPos2] = 1;
-					flightDifference = flightDifference - 1;
-				}
-				currentPos1 = currentPos1 + 1;
-				currentPos2 = currentPos2 - 1;	
-			}
-			return flightMap;
-		}
-		return flightMap;
-	}
-
-	// returns current percentage (i = 2, flightCount = 100 -> return 2%)
-	/**
-	 * Returns current percentage (i of flightCount), with 0/100 if i is smaller/larger than flightCount
-	 * @param flightCount amount of flights
-	 * @param i current position
-	 * @return current percentage
-	 */
-	private static int getCurrentPerc(int flightCount, int i) {
-		if (i < 0 || flightCount < 0) {
-			return 0;
-		}
-		if (i > flightCount) {
-			return 100;
-		}
-		int currentPerc = (int) (((double) i/(double) flightCount)*100);
-		//if the current percentage is 0, 99, 100
-		if (currentPerc >= 99) {
-			return 99;
-		} else if (currentPerc <= 0) {
-			return 0;
-		} else {
-			// for other percentages
-			return currentPerc;
-		}
+	private static UUID randomUUID(SplittableRandom random) {
+		long mostSigBits = random.nextLong();
+		long leastSigBits = random.nextLong();
+		mostSigBits = (mostSigBits & ~0xF000L) | 0x4000L; // version 4
+		leastSigBits = (leastSigBits & ~0xC000000000000000L) | 0x8000000000000000L; // variant (IETF)
+		return new UUID(mostSigBits, leastSigBits);
 	}
 
 	/**
@@ -695,19 +587,18 @@ public class TestDataGenerator {
 	 * @param priority settings for priority
 	 * @param i current position
 	 * @param size size
+	 * @param random generator of the random priority
 	 * @return current priority (randomized between defined lower and upper value)
 	 */
-	private static double getCurrentPriority(double[][] priority, int i, int size) {
+	private static double getCurrentPriority(double[][] priority, int i, int size, SplittableRandom random) {
 		double currentPriority = 1.0;
 		for (int k = 0; k < priority.length; k++) {
 			double currentLocation = ((double)(i)/(double)(size)) * 100; // 20 -> at 20%
 			if (currentLocation < priority[k][1] && currentLocation >= priority[k][0]) {
-				Random r = new Random();
-				OptionalDouble od = r.doubles(priority[k][2], priority[k][3] + 1E-10).findFirst();
-				try {
-					currentPriority = od.getAsDouble();
-				} catch (Exception e) {
-					// if no value is present use lower value
+				if (priority[k][2] < priority[k][3] + 1E-10) {
+					currentPriority = random.nextDouble(priority[k][2], priority[k][3] + 1E-10);
+				} else {
+					// if no value is possible use lower value
 					currentPriority = priority[k][2];
 				}
 				logger.debug("current priority is: " + currentPriority);
@@ -724,13 +615,13 @@ public class TestDataGenerator {
 	 * @param flightId current flightId
 	 * @param scheduledTime current scheduledTime
 	 * @param me MarginEntry object
-	 * @param slots list of given slots
+	 * @param slotOffsets times of the given slots (see FlightGenerator.getSlotOffsets)
 	 * @param optE OptimizationEntry object
 	 * @return Flight object
 	 */
 	private static Flight generateFlight(String flightId, LocalDateTime scheduledTime, MarginEntry me, 
-			List<Slot> slots, OptimizationEntry optE) {
-		int[] weightMap = FlightGenerator.generateWeightMap(me, slots, optE);
+			long[] slotOffsets, OptimizationEntry optE) {
+		int[] weightMap = FlightGenerator.generateWeightMap(me, slotOffsets, optE);
 		
 		Flight f = new Flight(flightId, scheduledTime.atZone(ZoneId.of("Europe/Vienna")).toInstant(), weightMap);
 		
@@ -744,12 +635,12 @@ public class TestDataGenerator {
 	 * @param marginWindowWidth duration between TimeNotBefore and TimeNotAfter (in seconds)
 	 * @param timeWished current wished time
 	 * @param priority priority of this MarginEntry object
-	 * @param slots given list of slots
+	 * @param slots given slots
 	 * @param optE OptimizationEntry object
 	 * @return generated MarginEntry object
 	 */
 	private static MarginEntry generateMargin(String flightId, LocalDateTime scheduledTime, int marginWindowWidth, 
-			LocalDateTime timeWished, double priority, List<Slot> slots, OptimizationEntry optE) {
+			LocalDateTime timeWished, double priority, SlotTimeline slots, OptimizationEntry optE) {
 		LocalDateTime timeNotBefore = timeWished.minusSeconds(marginWindowWidth/2);
 		LocalDateTime timeNotAfter = timeWished.plusSeconds(marginWindowWidth/2);
 			
@@ -780,17 +671,17 @@ public class TestDataGenerator {
 	}
 	
 	/**
-	 * Converts array of SlotInfo-objects to list of Slot-objects.
+	 * Converts array of SlotInfo-objects to a slot timeline.
 	 * @param slots array of SlotInfo-objects
-	 * @return converted list of Slot-objects
+	 * @return converted slot timeline
 	 */
-	private static List<Slot> convertSlotInfoToSlotList(SlotInfo[] slots){
-		List<Slot> slotList = new LinkedList<Slot>();
+	private static SlotTimeline convertSlotInfoToSlotTimeline(SlotInfo[] slots){
+		LocalDateTime[] slotTimes = new LocalDateTime[slots.length];
 		for (int i = 0; i < slots.length; i++) {
-			// sequence numbers begin at 0
-			slotList.add(new Slot((i+1), slots[i].getTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime()));
+			slotTimes[i] = slots[i].getTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime();
 		}
-		return slotList;
+		// sequence numbers begin at 1
+		return new SlotTimeline(slotTimes, 1);
 	}
 	
 	/**
@@ -1055,7 +946,11 @@ public class TestDataGenerator {
 			tdgConfig.setFlightPrefix("F");
 		}
 		if (tdgConfig.getSlotStartTime() == null) {
-			tdgConfig.setSlotStartTime(Instant.now());
+			if (tdgConfig.getSeed() != null) {
+				tdgConfig.setSlotStartTime(SEEDED_SLOT_START_TIME);
+			} else {
+				tdgConfig.setSlotStartTime(Instant.now());
+			}
 		}
 		if (tdgConfig.getSlotLengthSec() < 1) {
 			tdgConfig.setSlotLengthSec(60);
@@ -1083,6 +978,9 @@ public class TestDataGenerator {
 		if (tdgConfig.getMaxTime() < 1) {
 			tdgConfig.setMaxTime(60);
 		}
+		if (tdgConfig.getSeed() == null) {
+			tdgConfig.setSeed(new SplittableRandom().nextLong());
+		}
 		if (logger.isInfoEnabled() || logger.isDebugEnabled()) {
 			logger.info("Test Data Generator Configuration:");
 			logger.info("\t flight count: " + tdgConfig.getFlightCount());
@@ -1092,10 +990,14 @@ public class TestDataGenerator {
 			logger.info("\t slot length: " + tdgConfig.getSlotLengthSec());
 			logger.info("\t margin window length (in seconds): " + tdgConfig.getMarginWindowLength());
 			logger.info("\t distribution setting (presets): " + tdgConfig.getDistributionSetting());
+			if (tdgConfig.getDistributionTable() != null && tdgConfig.getDistributionTable().length > 0) {
+				logger.info("\t distribution table (replaces distribution setting): " + Arrays.toString(tdgConfig.getDistributionTable()));
+			}
 			logger.info("\t optimization framework (may be overwritten later): " + tdgConfig.getOptimizationFramework());
 			logger.info("\t priority settings: " + prioritySettingsToString(tdgConfig.getPrioritySettings()));
 			logger.info("\t (weight map) min value: " + tdgConfig.getMinValue() + " | max value: " + tdgConfig.getMaxValue());
 			logger.info("\t max time (for optimization sessions): " + tdgConfig.getMaxTime());
+			logger.info("\t seed (to generate the same files again): " + tdgConfig.getSeed());
 		}
 		return tdgConfig;
 	}
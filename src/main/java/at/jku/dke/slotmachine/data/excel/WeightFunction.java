@@ -0,0 +1,397 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Weight map of a flight as piecewise linear function of the slot time (the cost function of FlightGenerator).
+ * The bounds and gradients of the pieces (scheduled time, time not before, time wished, time not after and end
+ * of the slots) are calculated once per flight, the weight of a slot is calculated from the time of the slot in
+ * O(1), therefore no weights are stored. The pieces are monotone, range queries (max, argmax) evaluate only the
+ * first and last slot of each piece (and use a binary search if the maximum is at the end of a piece).
+ * WeightFunction objects are immutable and can be used by several threads.
+ */
+public final class WeightFunction {
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * slots of the optimization (null if the function is only evaluated with weightAtOffset)
+     */
+    private final SlotTimeline slots;
+    /**
+     * start time of the optimization as epoch second (slot offsets are relative to this second)
+     */
+    private final long beginSecond;
+
+    // a slot (offset in whole seconds) is before a margin if its offset is lower than these bounds
+    private final long scheduledTimeBound;
+    private final long timeNotBeforeBound;
+    private final long timeWishedBound;
+    private final long timeNotAfterBound;
+
+    private final int intTimeNotBefore;
+    private final int intTimeWished;
+    private final int intSlotEnd;
+
+    private final double minValue;
+    private final double maxValue;
+    private final double dropValue;
+    private final double priority;
+
+    // gradients of the cost function
+    private final double kBeforeTimeNotBefore;
+    private final double kBeforeTimeWished;
+    private final double kBeforeTimeNotAfter;
+    private final double kAfterTimeNotAfter;
+
+    WeightFunction(MarginEntry margin, SlotTimeline slots, OptimizationEntry opt) {
+        this.slots = slots;
+        LocalDateTime timeSlotBegin = opt.getStartTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime();
+        LocalDateTime timeSlotEnd = opt.getEndTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime();
+
+        // same offsets as FlightGenerator.getSlotOffsets(SlotTimeline, OptimizationEntry)
+        long second = timeSlotBegin.toEpochSecond(ZoneOffset.UTC);
+        if (slots != null && slots.getNanoOfSecond() < timeSlotBegin.getNano()) {
+            second++;
+        }
+        this.beginSecond = second;
+
+        // calculate time durations between slot-begin-time and scheduledTime/TimeNotBefore/...
+        // value can be negative or positive, Math.abs is not useful here with this cost function
+        int intScheduledTime = (int) Duration.between(timeSlotBegin, margin.getScheduledTime()).toSeconds();
+        if (intScheduledTime >= 0) { //for current requirements
+            intScheduledTime = 0;
+        }
+        int timeNotBefore = (int) Duration.between(timeSlotBegin, margin.getTimeNotBefore()).toSeconds();
+        if (timeNotBefore < 0) {
+            timeNotBefore = 0;
+        }
+        int timeNotAfter = (int) Duration.between(timeSlotBegin, margin.getTimeNotAfter()).toSeconds();
+        if (timeNotAfter < 0) {
+            timeNotAfter = 0;
+        }
+        int timeWished = (int) Duration.between(timeSlotBegin, margin.getTimeWished()).toSeconds();
+        if (timeWished < 0) {
+            timeWished = 0;
+        }
+        this.intTimeNotBefore = timeNotBefore;
+        this.intTimeWished = timeWished;
+        this.intSlotEnd = (int) Duration.between(timeSlotBegin, timeSlotEnd).toSeconds();
+
+        this.scheduledTimeBound = getOffsetBound(timeSlotBegin, margin.getScheduledTime());
+        this.timeNotBeforeBound = getOffsetBound(timeSlotBegin, margin.getTimeNotBefore());
+        this.timeWishedBound = getOffsetBound(timeSlotBegin, margin.getTimeWished());
+        this.timeNotAfterBound = getOffsetBound(timeSlotBegin, margin.getTimeNotAfter());
+
+        if (margin.getTimeNotBefore().isAfter(margin.getTimeWished())
+                || margin.getTimeWished().isAfter(margin.getTimeNotAfter())) {
+            logger.info("TimeNotBefore must be before TimeWished and/or TimeWished must be before TimeNotAfter! " +
+                    "Therefore, Weight Map for flight " + margin.getFlightId() + " could have wrong values!");
+        }
+
+        this.minValue = opt.getMinValue();
+        this.maxValue = opt.getMaxValue();
+        this.dropValue = opt.getDropValue();
+        this.priority = margin.getPriority();
+
+        // k = (0 - minValue)/(TimeNotBefore-ScheduledTime) ODER (0 - minValue)/(TimeNotBefore - SlotBegin)
+        double k = ((0 - minValue)/(intTimeNotBefore - 0));
+        if (intScheduledTime > 0) { //if ScheduledTime is after SlotBegin
+            k = (Math.abs(minValue)/(intTimeNotBefore - 0));
+        }
+        this.kBeforeTimeNotBefore = k;
+        // k = (maxValue - dropValue)/(TimeWished - TimeNotBefore)
+        this.kBeforeTimeWished = (maxValue - dropValue)/(intTimeWished - intTimeNotBefore);
+        // k = (dropValue - maxValue)/(TimeNotAfter - TimeWished)
+        this.kBeforeTimeNotAfter = (dropValue - maxValue)/(timeNotAfter - intTimeWished);
+        // k = (minValue - 0)/(SlotEnd - TimeNotAfter)
+        this.kAfterTimeNotAfter = (minValue)/(intSlotEnd - timeNotAfter);
+    }
+
+    /**
+     * Creates the weight function of a flight for the slots of the optimization.
+     * @param margin contains information about the margins per flight
+     * @param opt contains information about slots, min-/max value and priority-value
+     * @return weight function
+     */
+    public static WeightFunction create(MarginEntry margin, OptimizationEntry opt) {
+        return create(margin, opt.getSlotTimeline(), opt);
+    }
+
+    /**
+     * Creates the weight function of a flight for the given slots.
+     * @param margin contains information about the margins per flight
+     * @param slots slots of the weight map
+     * @param opt contains information about the start/end time, min-/max value and priority-value
+     * @return weight function
+     */
+    public static WeightFunction create(MarginEntry margin, SlotTimeline slots, OptimizationEntry opt) {
+        if (slots == null) {
+            throw new IllegalArgumentException("Slots of the weight function of flight " + margin.getFlightId() + " are missing.");
+        }
+        return new WeightFunction(margin, slots, opt);
+    }
+
+    /**
+     * @return number of slots
+     */
+    public int getSlotCount() {
+        return slots.size();
+    }
+
+    /**
+     * @param slot index of the slot
+     * @return weight of the slot
+     */
+    public int weight(int slot) {
+        return weightAtOffset(getSlotOffset(slot));
+    }
+
+    /**
+     * @param slotOffset time of a slot as offset in seconds to the start time of the optimization
+     *          (see FlightGenerator.getSlotOffsets)
+     * @return weight of a slot at this time
+     */
+    public int weightAtOffset(long slotOffset) {
+        double x = Math.abs(slotOffset);
+        double currentWeight;
+
+        // before ScheduledTime, currently unused
+        if (slotOffset < scheduledTimeBound) {
+            currentWeight = minValue;
+        // between ScheduledTime/SlotBegin (incl.) and TimeNotBefore (excl.)
+        //     value at ScheduledTime or SlotStart = minValue
+        //     value at TimeNotBefore = 0
+        } else if (slotOffset < timeNotBeforeBound) {
+            // f(x) = k*x + minValue - k
+            currentWeight = kBeforeTimeNotBefore * x + minValue - kBeforeTimeNotBefore;
+            if (currentWeight < minValue) {
+                currentWeight = minValue;
+            }
+        // between TimeNotBefore (incl.) and TimeWished (excl.)
+        //     value at TimeNotBefore = dropValue
+        //     value at TimeNotBefore = maxValue
+        } else if (slotOffset < timeWishedBound) {
+            // f(x) = k*x + d
+            currentWeight = (kBeforeTimeWished * x) + dropValue - (kBeforeTimeWished * intTimeNotBefore);
+        // between TimeWished (incl.) and TimeNotAfter (incl.)
+        //     value at TimeWished = maxValue
+        //     value at TimeNotAfter = dropValue
+        } else if (slotOffset < timeNotAfterBound) {
+            // f(x) = k*x + d
+            currentWeight = (kBeforeTimeNotAfter * x) + maxValue - (kBeforeTimeNotAfter * intTimeWished);
+        // between TimeNotAfter (incl.) and SlotEnd (incl.)
+        //     value at TimeNotAfter = 0
+        //     value at SlotEnd = minValue
+        } else {
+            // f(x) = k*x + d
+            currentWeight = (kAfterTimeNotAfter * x) + minValue - (kAfterTimeNotAfter * intSlotEnd);
+            if (currentWeight < minValue) {
+                currentWeight = minValue;
+            }
+        }
+
+        // multiply values by priority
+        if (priority != 1) {
+            return (int) (currentWeight * priority);
+        }
+        return (int) currentWeight;
+    }
+
+    /**
+     * Writes the weight of each slot to the buffer.
+     * @param buffer buffer for the weights (at least as long as the number of slots)
+     * @return buffer filled with the weights
+     */
+    public int[] evaluate(int[] buffer) {
+        evaluate(0, getSlotCount(), buffer, 0);
+        return buffer;
+    }
+
+    /**
+     * Writes the weights of the slots from (inclusive) to to (exclusive) to the buffer.
+     * @param from index of the first slot
+     * @param to index after the last slot
+     * @param buffer buffer for the weights
+     * @param bufferOffset index of the weight of slot from in the buffer
+     */
+    public void evaluate(int from, int to, int[] buffer, int bufferOffset) {
+        checkRange(from, to);
+        for (int i = from; i < to; i++) {
+            buffer[bufferOffset + i - from] = weight(i);
+        }
+    }
+
+    /**
+     * @param from index of the first slot
+     * @param to index after the last slot (greater than from)
+     * @return highest weight of the slots from (inclusive) to to (exclusive)
+     */
+    public int max(int from, int to) {
+        return weight(argmax(from, to));
+    }
+
+    /**
+     * @param from index of the first slot
+     * @param to index after the last slot (greater than from)
+     * @return index of the (first) slot with the highest weight of the slots from (inclusive) to to (exclusive)
+     */
+    public int argmax(int from, int to) {
+        checkRange(from, to);
+        if (from == to) {
+            throw new IllegalArgumentException("Range of slots from " + from + " to " + to + " is empty.");
+        }
+        if (!slots.isSorted()) {
+            return argmaxOfSlots(from, to);
+        }
+
+        int best = -1;
+        int bestWeight = Integer.MIN_VALUE;
+        int start = from;
+        while (start < to) {
+            // slots of the same piece (and with the same sign of the offset) have monotone weights
+            long slotOffset = getSlotOffset(start);
+            long pieceEnd = getPieceEnd(slotOffset);
+            if (slotOffset < 0 && pieceEnd > 0) {
+                pieceEnd = 0;
+            }
+            int end = pieceEnd == Long.MAX_VALUE ? to : firstSlotNotBefore(start + 1, to, pieceEnd);
+
+            int candidate;
+            if (!isMonotone(slotOffset)) {
+                candidate = argmaxOfSlots(start, end);
+            } else if (weight(start) >= weight(end - 1)) {
+                candidate = start;
+            } else {
+                candidate = firstSlotWithWeight(start, end - 1, weight(end - 1));
+            }
+            int candidateWeight = weight(candidate);
+            if (best < 0 || candidateWeight > bestWeight) {
+                best = candidate;
+                bestWeight = candidateWeight;
+            }
+            start = end;
+        }
+        return best;
+    }
+
+    /**
+     * Converts the weight function to a run-length encoded weight map (e.g. to write it with SessionJsonWriter).
+     * @return encoded weight map
+     */
+    public WeightMap toWeightMap() {
+        return WeightMap.encode(evaluate(new int[getSlotCount()]));
+    }
+
+    private long getSlotOffset(int slot) {
+        return slots.getEpochSecond(slot) - beginSecond;
+    }
+
+    /**
+     * @return offset of the bound, which ends the piece of the slot offset (Long.MAX_VALUE for the last piece)
+     */
+    private long getPieceEnd(long slotOffset) {
+        if (slotOffset < scheduledTimeBound) {
+            return scheduledTimeBound;
+        } else if (slotOffset < timeNotBeforeBound) {
+            return timeNotBeforeBound;
+        } else if (slotOffset < timeWishedBound) {
+            return timeWishedBound;
+        } else if (slotOffset < timeNotAfterBound) {
+            return timeNotAfterBound;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * @return true if the weights of the piece of the slot offset are monotone (gradients of margins, which are
+     *          at the same second, are not finite)
+     */
+    private boolean isMonotone(long slotOffset) {
+        if (slotOffset < scheduledTimeBound) {
+            return true;
+        } else if (slotOffset < timeNotBeforeBound) {
+            return Double.isFinite(kBeforeTimeNotBefore);
+        } else if (slotOffset < timeWishedBound) {
+            return Double.isFinite(kBeforeTimeWished);
+        } else if (slotOffset < timeNotAfterBound) {
+            return Double.isFinite(kBeforeTimeNotAfter);
+        }
+        return Double.isFinite(kAfterTimeNotAfter);
+    }
+
+    /**
+     * @return first slot from from to to (exclusive) with an offset of at least minOffset (slots must be sorted),
+     *          or to if there is no such slot
+     */
+    private int firstSlotNotBefore(int from, int to, long minOffset) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getSlotOffset(mid) < minOffset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return first slot from from to last (inclusive) with the given weight (weights must be non-decreasing,
+     *          last must have the weight)
+     */
+    private int firstSlotWithWeight(int from, int last, int weight) {
+        int low = from;
+        int high = last;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (weight(mid) < weight) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int argmaxOfSlots(int from, int to) {
+        int best = from;
+        int bestWeight = weight(from);
+        for (int i = from + 1; i < to; i++) {
+            int w = weight(i);
+            if (w > bestWeight) {
+                best = i;
+                bestWeight = w;
+            }
+        }
+        return best;
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > getSlotCount() || from > to) {
+            throw new IndexOutOfBoundsException("Range of slots from " + from + " to " + to + " is not in " +
+                    getSlotCount() + " slots.");
+        }
+    }
+
+    /**
+     * @param timeSlotBegin start time of the slots
+     * @param time time of a margin
+     * @return smallest offset in whole seconds, which is not before time (a slot is before time if its
+     *          offset is lower than this value)
+     */
+    private static long getOffsetBound(LocalDateTime timeSlotBegin, LocalDateTime time) {
+        Duration duration = Duration.between(timeSlotBegin, time);
+        if (duration.getNano() > 0) {
+            return duration.getSeconds() + 1;
+        }
+        return duration.getSeconds();
+    }
+}
@@ -0,0 +1,206 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.util.Arrays;
+
+/**
+ * Run-length encoded weight map of a flight. The weight maps of FlightGenerator are piecewise linear and most
+ * slots (before the scheduled time and after the margins) have the same minimum weight, therefore the weights are
+ * stored as segments: runs of equal weights (only the weight and the length are stored) and literal segments
+ * with the weights of the slots in between (e.g. the linear parts of the cost function). The weight of a slot is
+ * found with a binary search over the segments, toArray() expands the weight map to one weight per slot.
+ * WeightMap objects are immutable and can be used by several threads.
+ */
+public final class WeightMap {
+    /**
+     * runs of equal weights shorter than this length are stored in literal segments
+     */
+    public static final int MIN_RUN_LENGTH = 8;
+
+    private final int length;
+    /**
+     * first slot of each segment and the length of the weight map as last element (segment count + 1 elements)
+     */
+    private final int[] segmentStarts;
+    /**
+     * weight of each run segment (unused for literal segments)
+     */
+    private final int[] runWeights;
+    /**
+     * weights of each literal segment, null for run segments
+     */
+    private final int[][] literalWeights;
+
+    WeightMap(int length, int[] segmentStarts, int[] runWeights, int[][] literalWeights) {
+        this.length = length;
+        this.segmentStarts = segmentStarts;
+        this.runWeights = runWeights;
+        this.literalWeights = literalWeights;
+    }
+
+    /**
+     * Encodes the weights (the array is not kept).
+     * @param weights weight of each slot
+     * @return encoded weight map
+     */
+    public static WeightMap encode(int[] weights) {
+        return encode(weights, weights.length);
+    }
+
+    /**
+     * Encodes the first weights of the array (e.g. of a buffer, which is reused for several weight maps).
+     * @param weights weight of each slot
+     * @param length number of slots
+     * @return encoded weight map
+     */
+    public static WeightMap encode(int[] weights, int length) {
+        int[] starts = new int[8];
+        int[] runs = new int[8];
+        boolean[] isRun = new boolean[8];
+        int segments = 0;
+
+        // runs of at least MIN_RUN_LENGTH equal weights become run segments, the weights between two runs
+        // become one literal segment
+        int literalStart = 0;
+        int i = 0;
+        while (i < length) {
+            int runEnd = i + 1;
+            while (runEnd < length && weights[runEnd] == weights[i]) {
+                runEnd++;
+            }
+            if (runEnd - i >= MIN_RUN_LENGTH) {
+                if (segments + 2 > starts.length) {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                    runs = Arrays.copyOf(runs, runs.length * 2);
+                    isRun = Arrays.copyOf(isRun, isRun.length * 2);
+                }
+                if (literalStart < i) {
+                    starts[segments] = literalStart;
+                    segments++;
+                }
+                starts[segments] = i;
+                runs[segments] = weights[i];
+                isRun[segments] = true;
+                segments++;
+                literalStart = runEnd;
+            }
+            i = runEnd;
+        }
+        if (literalStart < length) {
+            if (segments + 1 > starts.length) {
+                starts = Arrays.copyOf(starts, starts.length + 1);
+                runs = Arrays.copyOf(runs, runs.length + 1);
+                isRun = Arrays.copyOf(isRun, isRun.length + 1);
+            }
+            starts[segments] = literalStart;
+            segments++;
+        }
+
+        int[] segmentStarts = Arrays.copyOf(starts, segments + 1);
+        segmentStarts[segments] = length;
+        int[][] literalWeights = new int[segments][];
+        for (int s = 0; s < segments; s++) {
+            if (!isRun[s]) {
+                literalWeights[s] = Arrays.copyOfRange(weights, segmentStarts[s], segmentStarts[s+1]);
+            }
+        }
+        return new WeightMap(length, segmentStarts, Arrays.copyOf(runs, segments), literalWeights);
+    }
+
+    /**
+     * @return number of slots
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @param slot index of the slot
+     * @return weight of the slot
+     */
+    public int get(int slot) {
+        if (slot < 0 || slot >= length) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " is not in weight map of length " + length + ".");
+        }
+        int segment = getSegment(slot);
+        int[] literal = literalWeights[segment];
+        return literal == null ? runWeights[segment] : literal[slot - segmentStarts[segment]];
+    }
+
+    private int getSegment(int slot) {
+        int segment = Arrays.binarySearch(segmentStarts, 0, segmentStarts.length - 1, slot);
+        // not a start of a segment: insertion point - 1 is the segment, which contains the slot
+        return segment >= 0 ? segment : -segment - 2;
+    }
+
+    /**
+     * @return weight of each slot (new array)
+     */
+    public int[] toArray() {
+        int[] weights = new int[length];
+        for (int s = 0; s < getSegmentCount(); s++) {
+            if (literalWeights[s] == null) {
+                Arrays.fill(weights, segmentStarts[s], segmentStarts[s+1], runWeights[s]);
+            } else {
+                System.arraycopy(literalWeights[s], 0, weights, segmentStarts[s], literalWeights[s].length);
+            }
+        }
+        return weights;
+    }
+
+    public int getSegmentCount() {
+        return segmentStarts.length - 1;
+    }
+
+    /**
+     * @param segment index of the segment
+     * @return first slot of the segment
+     */
+    public int getSegmentStart(int segment) {
+        return segmentStarts[segment];
+    }
+
+    /**
+     * @param segment index of the segment
+     * @return number of slots of the segment
+     */
+    public int getSegmentLength(int segment) {
+        return segmentStarts[segment+1] - segmentStarts[segment];
+    }
+
+    /**
+     * @param segment index of the segment
+     * @return true, if all slots of the segment have the same weight (getRunWeight), false if the weights are
+     *          stored one by one (getLiteralWeights)
+     */
+    public boolean isRun(int segment) {
+        return literalWeights[segment] == null;
+    }
+
+    /**
+     * @param segment index of a run segment
+     * @return weight of all slots of the segment
+     */
+    public int getRunWeight(int segment) {
+        return runWeights[segment];
+    }
+
+    /**
+     * @param segment index of a literal segment
+     * @return weights of the slots of the segment (must not be modified), or null for run segments
+     */
+    public int[] getLiteralWeights(int segment) {
+        return literalWeights[segment];
+    }
+
+    /**
+     * @return number of stored integers (start, weight or literal weights of the segments), e.g. to compare the
+     *          size of the encoding with the length
+     */
+    public int getEncodedSize() {
+        int size = 0;
+        for (int s = 0; s < getSegmentCount(); s++) {
+            size += literalWeights[s] == null ? 2 : 1 + literalWeights[s].length;
+        }
+        return size;
+    }
+}
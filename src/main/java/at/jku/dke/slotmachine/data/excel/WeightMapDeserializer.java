@@ -0,0 +1,104 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Reads the field weightMap of a flight in both forms written by SessionJsonWriter: the array with the weight of
+ * each slot (default) and the run-length encoded object (option -sparse), e.g.
+ * {"length":1000,"segments":[{"count":400,"weight":-1000},{"weights":[-990,-980,...]},{"count":500,"weight":-1000}]}.
+ * Both forms are read as WeightMap, which is expanded when the weights of the flight are used as array.
+ */
+public class WeightMapDeserializer extends StdDeserializer<WeightMap> {
+    private static final long serialVersionUID = 1L;
+
+    public WeightMapDeserializer() {
+        super(WeightMap.class);
+    }
+
+    @Override
+    public WeightMap deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.isExpectedStartArrayToken()) {
+            int[] weights = readWeights(p);
+            return WeightMap.encode(weights);
+        }
+        if (!p.isExpectedStartObjectToken()) {
+            return (WeightMap) ctxt.handleUnexpectedToken(WeightMap.class, p);
+        }
+
+        int length = -1;
+        int segments = 0;
+        int[] segmentStarts = new int[9];
+        int[] runWeights = new int[8];
+        int[][] literalWeights = new int[8][];
+        int slots = 0;
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            JsonToken token = p.nextToken();
+            if (field.equals("length")) {
+                length = p.getIntValue();
+            } else if (field.equals("segments") && token == JsonToken.START_ARRAY) {
+                while (p.nextToken() == JsonToken.START_OBJECT) {
+                    if (segments == runWeights.length) {
+                        segmentStarts = Arrays.copyOf(segmentStarts, segments * 2 + 1);
+                        runWeights = Arrays.copyOf(runWeights, segments * 2);
+                        literalWeights = Arrays.copyOf(literalWeights, segments * 2);
+                    }
+                    int count = -1;
+                    for (String segmentField = p.nextFieldName(); segmentField != null; segmentField = p.nextFieldName()) {
+                        JsonToken segmentToken = p.nextToken();
+                        if (segmentField.equals("count")) {
+                            count = p.getIntValue();
+                        } else if (segmentField.equals("weight")) {
+                            runWeights[segments] = p.getIntValue();
+                        } else if (segmentField.equals("weights") && segmentToken == JsonToken.START_ARRAY) {
+                            literalWeights[segments] = readWeights(p);
+                        } else {
+                            p.skipChildren();
+                        }
+                    }
+                    if (literalWeights[segments] != null) {
+                        count = literalWeights[segments].length;
+                    }
+                    if (count <= 0) {
+                        return ctxt.reportInputMismatch(this, "Segment " + segments + " of weight map needs a " +
+                                "positive 'count' and a 'weight' or the non-empty array 'weights'.");
+                    }
+                    segmentStarts[segments] = slots;
+                    slots += count;
+                    segments++;
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+        if (length >= 0 && length != slots) {
+            return ctxt.reportInputMismatch(this, "Weight map has length " + length + ", but its segments contain " +
+                    slots + " slots.");
+        }
+
+        segmentStarts[segments] = slots;
+        return new WeightMap(slots, Arrays.copyOf(segmentStarts, segments + 1), Arrays.copyOf(runWeights, segments),
+                Arrays.copyOf(literalWeights, segments));
+    }
+
+    /**
+     * Reads the numbers of the current array (the parser is at the start of the array).
+     */
+    private static int[] readWeights(JsonParser p) throws IOException {
+        int[] weights = new int[64];
+        int size = 0;
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (size == weights.length) {
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            weights[size] = p.getIntValue();
+            size++;
+        }
+        return Arrays.copyOf(weights, size);
+    }
+}
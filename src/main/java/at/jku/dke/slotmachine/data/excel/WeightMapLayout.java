@@ -0,0 +1,20 @@
+package at.jku.dke.slotmachine.data.excel;
+
+/**
+ * Layout of the weight maps in an excel target file (see ExcelOutputWriter.writeWeightsToFile).
+ */
+public enum WeightMapLayout {
+	/**
+	 * one sheet per flight (named by the flightId) with one row per slot ('Slot | Weight')
+	 */
+	SHEET_PER_FLIGHT,
+	/**
+	 * one sheet 'WeightMatrix' with the slots as columns (header row) and one row per flight
+	 */
+	MATRIX;
+
+	/**
+	 * name of the sheet, which contains the weight maps of all flights in layout MATRIX
+	 */
+	public static final String MATRIX_SHEET_NAME = "WeightMatrix";
+}
@@ -12,6 +12,12 @@ public class TestDataConfigDTO {
 	private int slotLengthSec; // in seconds
 	private int marginWindowLength; // in seconds
 	private int distributionSetting;
+	/**
+	 * [0.5,1,4,1,0.5]
+	 * density of the wished times of the flights over the slots (the slots are divided into as many 
+	 * parts as there are entries), replaces distributionSetting if given
+	 */
+	private double[] distributionTable;
 	private String optimizationFramework; //may be overwritten by -tdg
 	/**
 	 * [[0,20,0.8,1.2],[20,80,1.0,1.0],[80,100,2.0,2.0]]
@@ -26,6 +32,17 @@ public class TestDataConfigDTO {
 	private int maxValue;
 	private int dropValue;
 	private int maxTime; // in seconds
+	/**
+	 * seed of all random values (priorities, optIds); the same seed and configuration generate the same files
+	 * (without slotStartTime the slots start at TestDataGenerator.SEEDED_SLOT_START_TIME instead of now),
+	 * if not set a random seed is used
+	 */
+	private Long seed;
+	/**
+	 * extension of the generated files, e.g. ".json", ".json.gz", ".json.zst" or ".smile";
+	 * if not set, the extension of the configuration file is used
+	 */
+	private String outputExtension;
 	
 	public TestDataConfigDTO() {
 		super();
@@ -113,4 +130,28 @@ public class TestDataConfigDTO {
 	public void setDropValue(int dropValue) {
 		this.dropValue = dropValue;
 	}
+
+	public String getOutputExtension() {
+		return outputExtension;
+	}
+
+	public void setOutputExtension(String outputExtension) {
+		this.outputExtension = outputExtension;
+	}
+
+	public Long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(Long seed) {
+		this.seed = seed;
+	}
+
+	public double[] getDistributionTable() {
+		return distributionTable;
+	}
+
+	public void setDistributionTable(double[] distributionTable) {
+		this.distributionTable = distributionTable;
+	}
 }
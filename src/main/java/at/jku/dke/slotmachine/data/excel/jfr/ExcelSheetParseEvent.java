@@ -0,0 +1,39 @@
+package at.jku.dke.slotmachine.data.excel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Reading of one sheet of an Excel file, either streamed from the file (ExcelStreamingReader, the event includes
+ * opening the file) or from a parsed workbook (ExcelInputReader).
+ */
+@Name("at.jku.dke.slotmachine.ExcelSheetParse")
+@Label("Excel Sheet Parse")
+@Category({"SlotMachine", "Excel I/O"})
+@Description("Rows of an Excel sheet read")
+public class ExcelSheetParseEvent extends jdk.jfr.Event {
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Sheet Name")
+    public String sheetName;
+
+    @Label("Flight Id")
+    @Description("Flight of the sheet (sheets with the weight map of one flight)")
+    public String flightId;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Slot Count")
+    @Description("Slots of the weight maps in the sheet")
+    public int slotCount;
+
+    @Label("Bytes")
+    @Description("Size of the Excel file (streamed sheets)")
+    @DataAmount
+    public long bytes;
+}
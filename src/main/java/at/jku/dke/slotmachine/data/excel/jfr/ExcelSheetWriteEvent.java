@@ -0,0 +1,33 @@
+package at.jku.dke.slotmachine.data.excel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Creation of the rows of one sheet of an Excel target file (ExcelOutputWriter.writeWeightsToFile), the workbook
+ * is written to the file afterwards (ExcelWorkbookWriteEvent).
+ */
+@Name("at.jku.dke.slotmachine.ExcelSheetWrite")
+@Label("Excel Sheet Write")
+@Category({"SlotMachine", "Excel I/O"})
+@Description("Rows of an Excel sheet created")
+public class ExcelSheetWriteEvent extends jdk.jfr.Event {
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Sheet Name")
+    public String sheetName;
+
+    @Label("Flight Id")
+    @Description("Flight of the sheet (sheets with the weight map of one flight)")
+    public String flightId;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Slot Count")
+    @Description("Slots of the weight maps in the sheet")
+    public int slotCount;
+}
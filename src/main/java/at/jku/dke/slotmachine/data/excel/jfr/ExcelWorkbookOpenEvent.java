@@ -0,0 +1,24 @@
+package at.jku.dke.slotmachine.data.excel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Parsing of a whole Excel workbook into memory (ExcelWorkbookSession.getWorkbook).
+ */
+@Name("at.jku.dke.slotmachine.ExcelWorkbookOpen")
+@Label("Excel Workbook Open")
+@Category({"SlotMachine", "Excel I/O"})
+@Description("Excel workbook parsed into memory")
+public class ExcelWorkbookOpenEvent extends jdk.jfr.Event {
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Bytes")
+    @Description("Size of the Excel file")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,27 @@
+package at.jku.dke.slotmachine.data.excel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Writing of a workbook to an Excel file (ExcelOutputWriter), including the serialization of all sheets.
+ */
+@Name("at.jku.dke.slotmachine.ExcelWorkbookWrite")
+@Label("Excel Workbook Write")
+@Category({"SlotMachine", "Excel I/O"})
+@Description("Excel workbook written to a file")
+public class ExcelWorkbookWriteEvent extends jdk.jfr.Event {
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Sheets")
+    public int sheets;
+
+    @Label("Bytes")
+    @Description("Size of the written Excel file")
+    @DataAmount
+    public long bytes;
+}
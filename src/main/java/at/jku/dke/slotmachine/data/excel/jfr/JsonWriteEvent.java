@@ -0,0 +1,36 @@
+package at.jku.dke.slotmachine.data.excel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Writing of an object to a JSON (or Smile) file (JsonOutputWriter.writeToFile), including the compression.
+ */
+@Name("at.jku.dke.slotmachine.JsonWrite")
+@Label("JSON Write")
+@Category({"SlotMachine", "JSON I/O"})
+@Description("Object written to a JSON or Smile file")
+public class JsonWriteEvent extends jdk.jfr.Event {
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Type")
+    @Description("Class of the written object")
+    public String type;
+
+    @Label("Flights")
+    @Description("Flights of a written session")
+    public int flights;
+
+    @Label("Slot Count")
+    @Description("Slots of a written session")
+    public int slotCount;
+
+    @Label("Bytes")
+    @Description("Size of the written file")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,33 @@
+package at.jku.dke.slotmachine.data.excel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Generation of the weight map of one flight (FlightGenerator.generateWeightMap and the encoded weight maps of
+ * FlightGenerator.generateFlights). Emitted once per flight, therefore without stack trace.
+ */
+@Name("at.jku.dke.slotmachine.WeightMapGeneration")
+@Label("Weight Map Generation")
+@Category({"SlotMachine", "Weight Maps"})
+@Description("Weight map of a flight generated")
+@StackTrace(false)
+public class WeightMapGenerationEvent extends jdk.jfr.Event {
+    @Label("Flight Id")
+    public String flightId;
+
+    @Label("Slot Count")
+    public int slotCount;
+
+    @Label("Priority")
+    public double priority;
+
+    @Label("Bytes")
+    @Description("Size of the weight map (encoded size for encoded weight maps)")
+    @DataAmount
+    public long bytes;
+}
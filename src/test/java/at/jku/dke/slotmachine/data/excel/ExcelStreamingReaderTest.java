@@ -0,0 +1,161 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ExcelStreamingReaderTest {
+    private static final String SOURCE_FILE = "resources/flights10Tests.xlsx";
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 14, 8, 0);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsTheSameMarginsAsExcelInputReader() {
+        assertSameMargins(ExcelInputReader.readMarginsFromFile(SOURCE_FILE),
+                ExcelStreamingReader.readMarginsFromFile(SOURCE_FILE));
+    }
+
+    @Test
+    public void readsTheSameOptimizationsAsExcelInputReader() {
+        assertSameOptimizations(ExcelInputReader.readOptimizationsFromFile(SOURCE_FILE),
+                ExcelStreamingReader.readOptimizationsFromFile(SOURCE_FILE));
+    }
+
+    @Test
+    public void readsTheSameEntriesOfAGeneratedWorkbook() throws IOException {
+        String fileName = createWorkbook().getPath();
+
+        List<MarginEntry> margins = ExcelStreamingReader.readMarginsFromFile(fileName);
+        assertEquals(3, margins.size());
+        assertEquals("F03", margins.get(2).getFlightId());
+        assertEquals(START.plusMinutes(2), margins.get(2).getScheduledTime());
+        assertSameMargins(ExcelInputReader.readMarginsFromFile(fileName), margins);
+
+        List<OptimizationEntry> opts = ExcelStreamingReader.readOptimizationsFromFile(fileName);
+        assertEquals(2, opts.size());
+        assertEquals("null", opts.get(1).getOptimizationFramework());
+        assertSameOptimizations(ExcelInputReader.readOptimizationsFromFile(fileName), opts);
+    }
+
+    @Test
+    public void findsSheets() throws IOException {
+        String fileName = createWorkbook().getPath();
+
+        assertTrue(ExcelStreamingReader.hasSheet(fileName, "Flights"));
+        assertTrue(ExcelStreamingReader.hasSheet(fileName, "Optimizations"));
+        assertFalse(ExcelStreamingReader.hasSheet(fileName, "WeightMap"));
+    }
+
+    @Test
+    public void missingFileHasNoSheets() {
+        String fileName = new File(folder.getRoot(), "missing.xlsx").getPath();
+
+        assertFalse(ExcelStreamingReader.hasSheet(fileName, "Flights"));
+        assertTrue(ExcelStreamingReader.readMarginsFromFile(fileName).isEmpty());
+    }
+
+    @Test
+    public void fileWithoutWorkbookHasNoSheets() throws IOException {
+        File file = folder.newFile("text.xlsx");
+        Files.write(file.toPath(), "not a workbook".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(ExcelStreamingReader.hasSheet(file.getPath(), "Flights"));
+        assertTrue(ExcelStreamingReader.readOptimizationsFromFile(file.getPath()).isEmpty());
+    }
+
+    /**
+     * Creates a workbook with the sheets 'Flights' and 'Optimizations', the rows after the first missing row
+     * are not read.
+     */
+    private File createWorkbook() throws IOException {
+        File file = folder.newFile("flights.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream out = new FileOutputStream(file)) {
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("dd.mm.yyyy hh:mm"));
+
+            Sheet flights = wb.createSheet("Flights");
+            createRow(flights, 0, dateStyle, "FlightId", "ScheduledTime", "TimeNotBefore", "TimeWished", "TimeNotAfter", "Priority");
+            for (int i = 1; i <= 3; i++) {
+                createRow(flights, i, dateStyle, "F0" + i, START.plusMinutes(i - 1), START.plusMinutes(5 * i),
+                        START.plusMinutes(10 * i), START.plusMinutes(20 * i), 0.5 * i);
+            }
+            createRow(flights, 5, dateStyle, "F05", START, START, START, START, 1.0);
+
+            Sheet optimizations = wb.createSheet("Optimizations");
+            createRow(optimizations, 0, dateStyle, "OptId", "StartTime", "EndTime", "Interval", "Framework",
+                    "MinValue", "MaxValue", "DropValue");
+            createRow(optimizations, 1, dateStyle, "opt-1", START, START.plusHours(1), 60.0, "Hungarian",
+                    -10000.0, 10000.0, 2000.0);
+            createRow(optimizations, 2, dateStyle, "opt-2", START.plusHours(1), START.plusHours(3), 300.0, null,
+                    -500.0, 800.0, 60.0);
+
+            wb.write(out);
+        }
+        return file;
+    }
+
+    private static void createRow(Sheet sheet, int rowNum, CellStyle dateStyle, Object... values) {
+        Row row = sheet.createRow(rowNum);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof String) {
+                row.createCell(i).setCellValue((String) values[i]);
+            } else if (values[i] instanceof Double) {
+                row.createCell(i).setCellValue((Double) values[i]);
+            } else if (values[i] instanceof LocalDateTime) {
+                row.createCell(i).setCellValue((LocalDateTime) values[i]);
+                row.getCell(i).setCellStyle(dateStyle);
+            }
+        }
+    }
+
+    private static void assertSameMargins(List<MarginEntry> expected, List<MarginEntry> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertFalse(expected.isEmpty());
+        for (int i = 0; i < expected.size(); i++) {
+            MarginEntry e = expected.get(i);
+            MarginEntry a = actual.get(i);
+            assertEquals(e.getFlightId(), a.getFlightId());
+            assertEquals(e.getScheduledTime(), a.getScheduledTime());
+            assertEquals(e.getTimeNotBefore(), a.getTimeNotBefore());
+            assertEquals(e.getTimeWished(), a.getTimeWished());
+            assertEquals(e.getTimeNotAfter(), a.getTimeNotAfter());
+            assertEquals(e.getPriority(), a.getPriority(), 0);
+        }
+    }
+
+    private static void assertSameOptimizations(List<OptimizationEntry> expected, List<OptimizationEntry> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertFalse(expected.isEmpty());
+        for (int i = 0; i < expected.size(); i++) {
+            OptimizationEntry e = expected.get(i);
+            OptimizationEntry a = actual.get(i);
+            assertEquals(e.getOptId(), a.getOptId());
+            assertEquals(e.getStartTime(), a.getStartTime());
+            assertEquals(e.getEndTime(), a.getEndTime());
+            assertEquals(e.getInterval(), a.getInterval());
+            assertEquals(e.getOptimizationFramework(), a.getOptimizationFramework());
+            assertEquals(e.getMinValue(), a.getMinValue(), 0);
+            assertEquals(e.getMaxValue(), a.getMaxValue(), 0);
+            assertEquals(e.getDropValue(), a.getDropValue(), 0);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FlightDistributionTest {
+
+	@Test
+	public void flightMapContainsExactlyTheFlightCount() {
+		FlightDistribution[] distributions = {
+				new FlightDistribution(x -> 1),
+				new FlightDistribution(x -> x),
+				new FlightDistribution(x -> Math.exp(-50 * (x - 0.3) * (x - 0.3))),
+				FlightDistribution.ofTable(new double[] {0, 3, 0.5, 7, 0, 0, 1})
+		};
+		int[] flightCounts = {1, 7, 99, 100, 1000, 12345};
+		int[] slotCounts = {1, 2, 3, 60, 97, 1000};
+		for (FlightDistribution distribution: distributions) {
+			for (int flightCount: flightCounts) {
+				for (int slotCount: slotCounts) {
+					int[] flightMap = distribution.getFlightMap(flightCount, slotCount);
+					assertEquals(slotCount, flightMap.length);
+					int sum = 0;
+					for (int flights: flightMap) {
+						assertTrue(flights >= 0);
+						sum = sum + flights;
+					}
+					assertEquals(flightCount, sum);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void uniformDensityDistributesFlightsEvenly() {
+		assertArrayEquals(new int[] {3, 3, 3, 3}, new FlightDistribution(x -> 1).getFlightMap(12, 4));
+		assertArrayEquals(new int[] {1, 1, 1, 0, 1, 1, 1, 1, 1, 0, 1, 1},
+				new FlightDistribution(x -> 1).getFlightMap(10, 12));
+	}
+
+	@Test
+	public void slotsWithoutDensityGetNoFlights() {
+		int[] flightMap = FlightDistribution.ofTable(new double[] {0, 1, 0, 1}).getFlightMap(50, 8);
+
+		assertArrayEquals(new int[] {0, 0, 13, 12, 0, 0, 13, 12}, flightMap);
+	}
+
+	@Test
+	public void missingDensityDistributesFlightsEvenly() {
+		assertArrayEquals(new int[] {2, 2, 2}, new FlightDistribution(x -> 0).getFlightMap(6, 3));
+		assertArrayEquals(new int[] {2, 2, 2}, new FlightDistribution(x -> Double.NaN).getFlightMap(6, 3));
+	}
+
+	@Test
+	public void emptyFlightMap() {
+		assertEquals(0, new FlightDistribution(x -> 1).getFlightMap(0, 10).length);
+		assertEquals(0, new FlightDistribution(x -> 1).getFlightMap(10, 0).length);
+	}
+}
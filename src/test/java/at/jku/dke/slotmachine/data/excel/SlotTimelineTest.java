@@ -0,0 +1,97 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+public class SlotTimelineTest {
+	private static final LocalDateTime START = LocalDateTime.of(2020, 1, 14, 8, 0);
+
+	@Test
+	public void createsSlotsFromStartToEndTime() {
+		OptimizationEntry opt = new OptimizationEntry("opt", START, START.plusMinutes(10), 60, "", -10000, 10000, 2000);
+		SlotTimeline slots = new SlotTimeline(opt);
+
+		assertEquals(11, slots.size());
+		assertTrue(slots.isSorted());
+		for (int i = 0; i < slots.size(); i++) {
+			assertEquals(START.plusMinutes(i), slots.getTime(i));
+			assertEquals(i, slots.getSequenceNumber(i));
+			assertEquals(i, slots.indexOf(START.plusMinutes(i)));
+		}
+	}
+
+	@Test
+	public void endTimeBetweenTwoSlotsIsNotASlot() {
+		OptimizationEntry opt = new OptimizationEntry("opt", START, START.plusSeconds(150), 60, "", -10000, 10000, 2000);
+		SlotTimeline slots = new SlotTimeline(opt);
+
+		assertEquals(3, slots.size());
+		assertEquals(START.plusSeconds(120), slots.getTime(2));
+	}
+
+	@Test
+	public void iteratesSlotsLikeGenerateSequenceItems() {
+		OptimizationEntry opt = new OptimizationEntry("opt", START, START.plusHours(1), 300, "", -10000, 10000, 2000);
+		Iterator<Slot> sequence = FlightGenerator.generateSequenceItems(opt).iterator();
+		int count = 0;
+		for (Slot slot: opt.getSlotTimeline()) {
+			Slot expected = sequence.next();
+			assertEquals(expected.getSequenceNumber(), slot.getSequenceNumber());
+			assertEquals(expected.getTime(), slot.getTime());
+			count++;
+		}
+		assertFalse(sequence.hasNext());
+		assertEquals(13, count);
+	}
+
+	@Test
+	public void indexOfTimeWithoutSlot() {
+		SlotTimeline slots = new SlotTimeline(new LocalDateTime[] {START, START.plusMinutes(5), START.plusMinutes(10)}, 0);
+
+		assertEquals(-1, slots.indexOf(START.minusMinutes(5)));
+		assertEquals(-1, slots.indexOf(START.plusMinutes(1)));
+		assertEquals(-1, slots.indexOf(START.plusMinutes(15)));
+		assertEquals(-1, slots.indexOf(START.plusNanos(1)));
+	}
+
+	@Test
+	public void indexOfIrregularSlots() {
+		LocalDateTime[] times = {START, START.plusMinutes(1), START.plusMinutes(5), START.plusMinutes(6)};
+		SlotTimeline slots = new SlotTimeline(times, 10);
+
+		assertTrue(slots.isSorted());
+		for (int i = 0; i < times.length; i++) {
+			assertEquals(i, slots.indexOf(times[i]));
+			assertEquals(10 + i, slots.getSequenceNumber(i));
+		}
+		assertEquals(-1, slots.indexOf(START.plusMinutes(2)));
+	}
+
+	@Test
+	public void indexOfUnsortedSlotsReturnsFirstSlot() {
+		// local times repeat at the end of daylight saving time
+		LocalDateTime[] times = {START, START.plusHours(1), START, START.plusMinutes(30)};
+		SlotTimeline slots = new SlotTimeline(times, 0);
+
+		assertFalse(slots.isSorted());
+		assertEquals(0, slots.indexOf(START));
+		assertEquals(1, slots.indexOf(START.plusHours(1)));
+		assertEquals(3, slots.indexOf(START.plusMinutes(30)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void slotsWithDifferentNanoOfSecondAreRejected() {
+		new SlotTimeline(new LocalDateTime[] {START, START.plusMinutes(1).plusNanos(5)}, 0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void sequenceNumberOutOfBounds() {
+		new SlotTimeline(new LocalDateTime[] {START}, 0).getSequenceNumber(1);
+	}
+}
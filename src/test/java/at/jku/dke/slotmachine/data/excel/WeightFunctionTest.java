@@ -0,0 +1,167 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class WeightFunctionTest {
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 14, 8, 0);
+
+    private static final OptimizationEntry[] OPTS = {
+            new OptimizationEntry("minutes", START, START.plusHours(2), 60, "", -10000, 10000, 2000),
+            new OptimizationEntry("fiveMinutes", START, START.plusHours(6).plusSeconds(30), 300, "", -5000, 8000, 1000),
+            new OptimizationEntry("nanos", START.plusNanos(500_000_000), START.plusHours(1), 90, "", -1000, 1000, 100)
+    };
+
+    private static List<MarginEntry> createMargins() {
+        List<MarginEntry> margins = new ArrayList<MarginEntry>();
+        margins.add(new MarginEntry("F01", START, START.plusMinutes(10), START.plusMinutes(20), START.plusMinutes(45), 1));
+        margins.add(new MarginEntry("F02", START.plusMinutes(30), START.plusMinutes(40), START.plusMinutes(41),
+                START.plusMinutes(90), 1.5));
+        margins.add(new MarginEntry("F03", START.minusMinutes(30), START.minusMinutes(10), START.plusMinutes(5),
+                START.plusMinutes(15), 0.7));
+        margins.add(new MarginEntry("F04", START.plusMinutes(7).plusSeconds(13), START.plusMinutes(60).plusSeconds(29),
+                START.plusMinutes(61), START.plusMinutes(118).plusSeconds(59), 2));
+        return margins;
+    }
+
+    @Test
+    public void weightIsTheWeightOfTheOriginalCostFunction() {
+        for (OptimizationEntry opt: OPTS) {
+            List<Slot> sequence = FlightGenerator.generateSequenceItems(opt);
+            for (MarginEntry margin: createMargins()) {
+                int[] expected = generateOriginalWeightMap(margin, sequence, opt);
+                WeightFunction function = WeightFunction.create(margin, opt);
+
+                assertEquals(expected.length, function.getSlotCount());
+                for (int i = 0; i < expected.length; i++) {
+                    assertEquals(opt.getOptId() + " " + margin.getFlightId() + " slot " + i, expected[i], function.weight(i));
+                }
+                assertArrayEquals(expected, FlightGenerator.generateWeightMap(margin, sequence, opt));
+                assertArrayEquals(expected, function.evaluate(new int[expected.length]));
+                assertArrayEquals(expected, function.toWeightMap().toArray());
+            }
+        }
+    }
+
+    @Test
+    public void generatedFlightsHaveTheWeightsOfTheOriginalCostFunction() {
+        List<MarginEntry> margins = createMargins();
+        for (OptimizationEntry opt: OPTS) {
+            List<Slot> sequence = FlightGenerator.generateSequenceItems(opt);
+            List<Flight> flights = FlightGenerator.generateFlights(margins, opt);
+            List<Flight> parallelFlights = FlightGenerator.generateFlights(margins, opt, 2);
+            for (int f = 0; f < margins.size(); f++) {
+                int[] expected = generateOriginalWeightMap(margins.get(f), sequence, opt);
+                assertArrayEquals(expected, flights.get(f).getWeightMap());
+                assertArrayEquals(expected, parallelFlights.get(f).getWeightMap());
+            }
+        }
+    }
+
+    @Test
+    public void maxIsTheMaximumOfTheWeights() {
+        for (OptimizationEntry opt: OPTS) {
+            for (MarginEntry margin: createMargins()) {
+                WeightFunction function = WeightFunction.create(margin, opt);
+                int[] weights = function.evaluate(new int[function.getSlotCount()]);
+                for (int from = 0; from < weights.length; from += 7) {
+                    for (int to = from + 1; to <= weights.length; to += 5) {
+                        int best = from;
+                        for (int i = from + 1; i < to; i++) {
+                            if (weights[i] > weights[best]) {
+                                best = i;
+                            }
+                        }
+                        assertEquals(best, function.argmax(from, to));
+                        assertEquals(weights[best], function.max(from, to));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The cost function of FlightGenerator.generateWeightMap before it has been replaced by WeightFunction.
+     */
+    private static int[] generateOriginalWeightMap(MarginEntry margin, List<Slot> sequence, OptimizationEntry opt) {
+        List<Double> weightMapList = new ArrayList<Double>();
+
+        LocalDateTime timeSlotBegin = opt.getStartTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime();
+        LocalDateTime timeSlotEnd = opt.getEndTime().atZone(ZoneId.of("Europe/Vienna")).toLocalDateTime();
+
+        int intScheduledTime = (int) Duration.between(timeSlotBegin, margin.getScheduledTime()).toSeconds();
+        if (intScheduledTime >= 0) {
+            intScheduledTime = 0;
+        }
+        int intTimeNotBefore = (int) Duration.between(timeSlotBegin, margin.getTimeNotBefore()).toSeconds();
+        if (intTimeNotBefore < 0) {
+            intTimeNotBefore = 0;
+        }
+        int intTimeNotAfter = (int) Duration.between(timeSlotBegin, margin.getTimeNotAfter()).toSeconds();
+        if (intTimeNotAfter < 0) {
+            intTimeNotAfter = 0;
+        }
+        int intTimeWished = (int) Duration.between(timeSlotBegin, margin.getTimeWished()).toSeconds();
+        if (intTimeWished < 0) {
+            intTimeWished = 0;
+        }
+        int intSlotEnd = (int) Duration.between(timeSlotBegin, timeSlotEnd).toSeconds();
+
+        for (Slot s: sequence) {
+            double x = Math.abs(Duration.between(timeSlotBegin, s.getTime()).toSeconds());
+
+            if (s.getTime().isBefore(margin.getScheduledTime())) {
+                weightMapList.add(opt.getMinValue());
+            } else if (s.getTime().isBefore(margin.getTimeNotBefore())
+                    && !(s.getTime().isBefore(margin.getScheduledTime())) ||
+                (s.getTime().isBefore(margin.getTimeNotBefore()) && intScheduledTime == 0)) {
+                double k = ((0 - opt.getMinValue())/(intTimeNotBefore - 0));
+                if (intScheduledTime > 0) {
+                    k = (Math.abs(opt.getMinValue())/(intTimeNotBefore - 0));
+                }
+                double currentWeight = k * x + opt.getMinValue() - k;
+                if (currentWeight < opt.getMinValue()) {
+                    currentWeight = opt.getMinValue();
+                }
+                weightMapList.add(currentWeight);
+            } else if (s.getTime().isBefore(margin.getTimeWished())
+                    && !(s.getTime().isBefore(margin.getTimeNotBefore()))) {
+                double k = (opt.getMaxValue() - opt.getDropValue())/(intTimeWished - intTimeNotBefore);
+                weightMapList.add((k * x) + opt.getDropValue() - (k * intTimeNotBefore));
+            } else if (s.getTime().isBefore(margin.getTimeNotAfter())
+                    && !(s.getTime().isBefore(margin.getTimeWished()))) {
+                double k = (opt.getDropValue() - opt.getMaxValue())/(intTimeNotAfter - intTimeWished);
+                weightMapList.add((k * x) + opt.getMaxValue() - (k * intTimeWished));
+            } else if (!(s.getTime().isBefore(margin.getTimeNotAfter()))) {
+                double k = (opt.getMinValue())/(intSlotEnd - intTimeNotAfter);
+                double currentWeight = (k * x) + opt.getMinValue() - (k * intSlotEnd);
+                if (currentWeight < opt.getMinValue()) {
+                    currentWeight = opt.getMinValue();
+                }
+                weightMapList.add(currentWeight);
+            } else {
+                weightMapList.add(opt.getMinValue());
+            }
+        }
+
+        int[] weightMap = new int[weightMapList.size()];
+        int i = 0;
+        for (double value: weightMapList) {
+            if (margin.getPriority() != 1) {
+                weightMap[i] = (int) (value * margin.getPriority());
+            } else {
+                weightMap[i] = (int) value;
+            }
+            i++;
+        }
+        return weightMap;
+    }
+}
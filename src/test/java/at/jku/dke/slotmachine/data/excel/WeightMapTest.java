@@ -0,0 +1,132 @@
+package at.jku.dke.slotmachine.data.excel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+public class WeightMapTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new SimpleModule().addDeserializer(WeightMap.class, new WeightMapDeserializer()));
+
+    @Test
+    public void encodesRunsAndLiteralSegments() {
+        int[] weights = new int[30];
+        Arrays.fill(weights, 0, 10, -1000);
+        for (int i = 10; i < 15; i++) {
+            weights[i] = i * 100;
+        }
+        Arrays.fill(weights, 15, 30, 7);
+        WeightMap weightMap = WeightMap.encode(weights);
+
+        assertEquals(30, weightMap.getLength());
+        assertEquals(3, weightMap.getSegmentCount());
+        assertTrue(weightMap.isRun(0));
+        assertEquals(-1000, weightMap.getRunWeight(0));
+        assertEquals(10, weightMap.getSegmentLength(0));
+        assertFalse(weightMap.isRun(1));
+        assertEquals(10, weightMap.getSegmentStart(1));
+        assertArrayEquals(new int[] {1000, 1100, 1200, 1300, 1400}, weightMap.getLiteralWeights(1));
+        assertTrue(weightMap.isRun(2));
+        assertEquals(15, weightMap.getSegmentLength(2));
+        assertEquals(2 + 6 + 2, weightMap.getEncodedSize());
+        assertArrayEquals(weights, weightMap.toArray());
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i], weightMap.get(i));
+        }
+    }
+
+    @Test
+    public void shortRunsAreLiteralWeights() {
+        int[] weights = {5, 5, 5, 5, 5, 5, 5, 1, 2, 2};
+        WeightMap weightMap = WeightMap.encode(weights);
+
+        assertEquals(1, weightMap.getSegmentCount());
+        assertFalse(weightMap.isRun(0));
+        assertArrayEquals(weights, weightMap.toArray());
+    }
+
+    @Test
+    public void encodesPartOfBuffer() {
+        int[] buffer = {3, 3, 3, 3, 3, 3, 3, 3, 3, 9, 9};
+        WeightMap weightMap = WeightMap.encode(buffer, 9);
+
+        assertEquals(9, weightMap.getLength());
+        assertEquals(1, weightMap.getSegmentCount());
+        assertTrue(weightMap.isRun(0));
+        assertArrayEquals(new int[] {3, 3, 3, 3, 3, 3, 3, 3, 3}, weightMap.toArray());
+    }
+
+    @Test
+    public void encodesEmptyWeightMap() {
+        WeightMap weightMap = WeightMap.encode(new int[0]);
+
+        assertEquals(0, weightMap.getLength());
+        assertEquals(0, weightMap.getSegmentCount());
+        assertEquals(0, weightMap.toArray().length);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void slotOutOfBounds() {
+        WeightMap.encode(new int[] {1, 2, 3}).get(3);
+    }
+
+    @Test
+    public void readsEncodedWeightMap() throws IOException {
+        WeightMap weightMap = MAPPER.readValue("{\"length\":13,\"segments\":[{\"count\":8,\"weight\":-1000}," +
+                "{\"weights\":[-990,-980]},{\"count\":3,\"weight\":0}]}", WeightMap.class);
+
+        assertEquals(13, weightMap.getLength());
+        assertEquals(3, weightMap.getSegmentCount());
+        assertArrayEquals(new int[] {-1000, -1000, -1000, -1000, -1000, -1000, -1000, -1000, -990, -980, 0, 0, 0},
+                weightMap.toArray());
+        assertNull(weightMap.getLiteralWeights(0));
+        assertEquals(-980, weightMap.get(9));
+    }
+
+    @Test
+    public void readsWeightArray() throws IOException {
+        WeightMap weightMap = MAPPER.readValue("[1,2,3,4,4,4,4,4,4,4,4,4]", WeightMap.class);
+
+        assertArrayEquals(new int[] {1, 2, 3, 4, 4, 4, 4, 4, 4, 4, 4, 4}, weightMap.toArray());
+        assertEquals(2, weightMap.getSegmentCount());
+    }
+
+    @Test
+    public void readsEncodedWeightMapWithoutLength() throws IOException {
+        WeightMap weightMap = MAPPER.readValue("{\"segments\":[{\"weights\":[1,2]},{\"count\":2,\"weight\":3}]}",
+                WeightMap.class);
+
+        assertArrayEquals(new int[] {1, 2, 3, 3}, weightMap.toArray());
+    }
+
+    @Test(expected = MismatchedInputException.class)
+    public void emptyLiteralSegmentIsRejected() throws IOException {
+        MAPPER.readValue("{\"length\":2,\"segments\":[{\"weights\":[]},{\"count\":2,\"weight\":3}]}", WeightMap.class);
+    }
+
+    @Test(expected = MismatchedInputException.class)
+    public void runWithoutPositiveCountIsRejected() throws IOException {
+        MAPPER.readValue("{\"segments\":[{\"count\":0,\"weight\":3}]}", WeightMap.class);
+    }
+
+    @Test(expected = MismatchedInputException.class)
+    public void runWithoutCountIsRejected() throws IOException {
+        MAPPER.readValue("{\"segments\":[{\"weight\":3}]}", WeightMap.class);
+    }
+
+    @Test(expected = MismatchedInputException.class)
+    public void lengthDifferentFromSegmentsIsRejected() throws IOException {
+        MAPPER.readValue("{\"length\":10,\"segments\":[{\"count\":8,\"weight\":3}]}", WeightMap.class);
+    }
+}